@@ -11,12 +11,14 @@ import lombok.*;
 public class BookingConfig {
 
   private List<ServiceRule> services = List.of();
+  private Map<String, ServiceRule> byCode = Map.of();
 
-  /** Returns the rule for the given ServiceOffering name (or id) */
+  /** Returns the rule for the given ServiceOffering code */
   public Optional<ServiceRule> ruleFor(String serviceCode) {
-    return services.stream()
-        .filter(r -> r.getCode().equalsIgnoreCase(serviceCode))
-        .findFirst();
+    if (serviceCode == null) {
+      return Optional.empty();
+    }
+    return Optional.ofNullable(byCode.get(serviceCode.toUpperCase(Locale.ROOT)));
   }
 
   public List<ServiceRule> getServices() {
@@ -25,6 +27,9 @@ public class BookingConfig {
 
   public void setServices(List<ServiceRule> services) {
     this.services = services;
+    var index = new HashMap<String, ServiceRule>();
+    services.forEach(r -> index.put(r.getCode().toUpperCase(Locale.ROOT), r));
+    this.byCode = index;
   }
 
   // --- nested static class holds one rule set ------------------
@@ -0,0 +1,11 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "idempotency")
+public record IdempotencyProps(
+    @DefaultValue("24") int ttlHours,
+    @DefaultValue("100000") int maxEntries,
+    @DefaultValue("60") int inProgressTimeoutSeconds) {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.config;
+
+import com.example.demo.model.NotificationChannel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "notifications")
+public record NotificationProps(
+    @DefaultValue("SMS") NotificationChannel channel,
+    @DefaultValue("50") int batchSize,
+    @DefaultValue("120") int leaseSeconds,
+    @DefaultValue("8") int maxAttempts,
+    @DefaultValue("10") long baseBackoffSeconds,
+    @DefaultValue("3600") long maxBackoffSeconds) {
+}
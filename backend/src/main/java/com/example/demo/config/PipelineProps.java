@@ -0,0 +1,14 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "reservation.pipeline")
+public record PipelineProps(
+    @DefaultValue("false") boolean enabled,
+    @DefaultValue("4") int shards,
+    @DefaultValue("32") int batchSize,
+    @DefaultValue("1000") int queueCapacity,
+    @DefaultValue("30") int ticketTtlMinutes,
+    @DefaultValue("120") int pendingTimeoutSeconds) {
+}
@@ -0,0 +1,11 @@
+package com.example.demo.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+@ConfigurationProperties(prefix = "reservation.retry")
+public record RetryProps(
+    @DefaultValue("4") int maxAttempts,
+    @DefaultValue("20") long baseBackoffMillis,
+    @DefaultValue("500") long maxBackoffMillis) {
+}
@@ -2,6 +2,7 @@ package com.example.demo.config;
 
 import com.example.demo.auth.JwtService;
 import io.jsonwebtoken.Claims;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.*;
@@ -41,14 +42,28 @@ public class SecurityConfig {
     http.cors(cors -> cors.configurationSource(corsSource()));
 
     http.authorizeHttpRequests(auth -> auth
+        // async re-dispatches (SSE stream completion) were already authorized on the original request
+        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
         // --- public auth endpoint (login) ---
         .requestMatchers("/api/auth/**").permitAll()
 
         // --- public customer endpoints (Reservation.jsx) ---
         .requestMatchers(HttpMethod.GET, "/api/services/**").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/services/refresh").hasRole("OWNER")
         .requestMatchers(HttpMethod.POST, "/api/pets").permitAll()
         .requestMatchers(HttpMethod.POST, "/api/reservations").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/reservations/with-pet").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/holds").permitAll()
+        .requestMatchers(HttpMethod.DELETE, "/api/holds/*").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/reservations/batch").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/reservations/series").permitAll()
+        .requestMatchers(HttpMethod.PATCH, "/api/reservations/series/*/cancel").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/reservations/queue").permitAll()
+        .requestMatchers(HttpMethod.GET, "/api/reservations/queue/*").permitAll()
         .requestMatchers(HttpMethod.PATCH, "/api/reservations/*/cancel").permitAll()
+        .requestMatchers(HttpMethod.POST, "/api/waitlist").permitAll()
+        .requestMatchers(HttpMethod.PATCH, "/api/waitlist/*/withdraw").permitAll()
 
         // --- owner-only dashboard & reservation management (OwnerDashboard.jsx) ---
         .requestMatchers(HttpMethod.GET, "/api/reservations/dashboard/**").hasRole("OWNER")
@@ -67,7 +82,8 @@ public class SecurityConfig {
     var cfg = new CorsConfiguration();
     cfg.setAllowedOrigins(List.of("http://localhost:5173"));
     cfg.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
-    cfg.setAllowedHeaders(List.of("Authorization", "Content-Type"));
+    cfg.setAllowedHeaders(List.of("Authorization", "Content-Type", "Idempotency-Key"));
+    cfg.setExposedHeaders(List.of("X-Next-Cursor"));
     cfg.setAllowCredentials(true);
     var source = new UrlBasedCorsConfigurationSource();
     source.registerCorsConfiguration("/**", cfg);
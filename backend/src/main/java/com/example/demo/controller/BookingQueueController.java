@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.BookingTicket;
+import com.example.demo.dto.ReservationRequest;
+import com.example.demo.service.BookingPipeline;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reservations/queue")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "reservation.pipeline", name = "enabled", havingValue = "true")
+public class BookingQueueController {
+  private final BookingPipeline pipeline;
+
+  @PostMapping
+  @ResponseStatus(HttpStatus.ACCEPTED)
+  public BookingTicket enqueue(@RequestBody ReservationRequest req) {
+    return pipeline.submit(req);
+  }
+
+  @GetMapping("/{ticket}")
+  public ResponseEntity<BookingTicket> status(@PathVariable UUID ticket) {
+    return ResponseEntity.of(pipeline.status(ticket));
+  }
+}
@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.Pet;
+import com.example.demo.service.IdempotencyStore;
 import com.example.demo.service.PetService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -13,6 +14,7 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class PetController {
   private final PetService svc;
+  private final IdempotencyStore idempotency;
 
   @GetMapping
   public List<Pet> all() {
@@ -24,9 +26,12 @@ public class PetController {
     return svc.findById(id);
   }
 
+  // returning customers reuse their pet row instead of adding another; the stored row is not echoed
   @PostMapping
-  public Pet create(@RequestBody Pet pet) {
-    return svc.save(pet);
+  public Pet create(@RequestBody Pet pet,
+      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+    return idempotency.execute(idempotencyKey, "pet", pet, Pet.class,
+        () -> PetService.asSent(pet, svc.upsert(pet).getId()));
   }
 
   @PutMapping("{id}")
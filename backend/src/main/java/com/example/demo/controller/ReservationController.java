@@ -1,27 +1,76 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.PetReservationRequest;
+import com.example.demo.dto.ReservationChanges;
 import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationFilter;
+import com.example.demo.dto.ReservationPage;
 import com.example.demo.dto.ReservationRequest;
+import com.example.demo.dto.ServiceOccupancy;
 import com.example.demo.model.Reservation;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.service.DataWatermarks;
+import com.example.demo.service.IdempotencyStore;
+import com.example.demo.service.PetService;
+import com.example.demo.service.ReservationBroadcaster;
 import com.example.demo.service.ReservationService;
+import com.example.demo.service.TransactionRetry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/reservations")
 @RequiredArgsConstructor
 public class ReservationController {
+  static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+  static final String DEFAULT_PAGE_SIZE = "200";
+
   private final ReservationService svc;
+  private final TransactionRetry retry;
+  private final ReservationBroadcaster broadcaster;
+  private final DataWatermarks watermarks;
+  private final IdempotencyStore idempotency;
 
   @PostMapping
-  public Reservation create(@RequestBody ReservationRequest req) {
-    return svc.create(req);
+  public Reservation create(@RequestBody ReservationRequest req,
+      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+    return idempotency.execute(idempotencyKey, "reservation", req, Reservation.class, () -> {
+      svc.validate(req);
+      return retry.run("create", () -> svc.create(req));
+    });
+  }
+
+  // one round trip for first-time customers: pet + booking, or neither
+  @PostMapping("/with-pet")
+  public Reservation createWithPet(@RequestBody PetReservationRequest req,
+      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+    return idempotency.execute(idempotencyKey, "reservation-with-pet", req, Reservation.class, () -> {
+      svc.validate(req);
+      var booked = retry.run("createWithPet", () -> svc.createWithPet(req));
+      // detached by now: answer with the pet as sent, not the row on file
+      booked.setPet(PetService.asSent(req.pet(), booked.getPet().getId()));
+      return booked;
+    });
+  }
+
+  // several pets or slots in one go: all booked, or none with per-item reasons
+  @PostMapping("/batch")
+  public List<Reservation> createBatch(@RequestBody List<ReservationRequest> reqs,
+      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+    return List.of(idempotency.execute(idempotencyKey, "reservation-batch", reqs, Reservation[].class, () -> {
+      svc.validateBatch(reqs);
+      return retry.run("createBatch", () -> svc.createBatch(reqs)).toArray(Reservation[]::new);
+    }));
   }
 
   @GetMapping
@@ -29,18 +78,21 @@ public class ReservationController {
     return svc.findAll();
   }
 
+  // One page of at most `limit` rows (200 by default); follow X-Next-Cursor for the rest of a busy day
   @GetMapping("/date")
-  public List<Reservation> byDate(@RequestParam("d") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day) {
-    LocalDateTime start = day.atStartOfDay();
-    LocalDateTime end = day.plusDays(1).atStartOfDay().minusNanos(1);
-    return svc.findAll().stream()
-        .filter(r -> !r.getReservationTime().isBefore(start)
-            && r.getReservationTime().isBefore(end))
-        .toList();
+  public ResponseEntity<List<Reservation>> byDate(
+      @RequestParam("d") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate day,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+    var filter = new ReservationFilter(day.atStartOfDay(), day.plusDays(1).atStartOfDay(), null, null, null);
+    return paged(svc.search(filter, cursor, limit));
   }
 
   @GetMapping("/pet/{petId}")
-  public List<Reservation> byPet(@PathVariable Long petId) {
+  public List<Reservation> byPet(@PathVariable Long petId, WebRequest request) {
+    if (request.checkNotModified(watermarks.reservationsEtag())) {
+      return null;
+    }
     return svc.findByPetId(petId);
   }
 
@@ -59,29 +111,67 @@ public class ReservationController {
   public record CancelReservationDto(String phone) {
   }
 
+  // Filters run in SQL; the next page's cursor is returned in X-Next-Cursor
   @GetMapping("/dashboard")
-  public List<ReservationDTO> dashboard(
+  public ResponseEntity<List<ReservationDTO>> dashboard(
       @RequestParam(required = false) String phone,
-      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(required = false) ReservationStatus status,
+      @RequestParam(required = false) Long serviceId,
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit,
+      WebRequest request) {
+
+    // the watermark is read before the data, so a racing write only costs a 200 later
+    if (request.checkNotModified(watermarks.reservationsEtag())) {
+      return null;
+    }
+    LocalDate first = date != null ? date : from;
+    LocalDate last = date != null ? date : to;
+    var filter = new ReservationFilter(
+        first == null ? null : first.atStartOfDay(),
+        last == null ? null : last.plusDays(1).atStartOfDay(),
+        phone, status, serviceId);
+    var page = svc.search(filter, cursor, limit);
+    return paged(new ReservationPage<>(
+        page.items().stream().map(ReservationDTO::from).toList(),
+        page.nextCursor()));
+  }
+
+  // Push channel: created / canceled / completed events as they commit
+  @GetMapping(path = "/dashboard/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter dashboardStream() {
+    return broadcaster.subscribe();
+  }
+
+  // Delta feed for the owner dashboard: only rows created or changed since the watermark.
+  // Without since it answers just the current watermark, taken before loading a /dashboard page
+  @GetMapping("/dashboard/changes")
+  public ReservationChanges<ReservationDTO> dashboardChanges(
+      @RequestParam(required = false) Long since,
+      @RequestParam(defaultValue = "500") int limit) {
+    var changes = since == null ? svc.changesFromNow() : svc.changesSince(since, limit);
+    return new ReservationChanges<>(
+        changes.items().stream().map(ReservationDTO::from).toList(),
+        changes.watermark(),
+        changes.hasMore());
+  }
 
-    return svc.findAll().stream()
-        .filter(r -> phone == null || r.getOwnerPhone().contains(phone))
-        .filter(r -> date == null || r.getReservationTime().toLocalDate().equals(date))
-        .map(this::toReservationDTO)
-        .toList();
+  // Kennels taken per night of one month; boarding unless another service is named
+  @GetMapping("/dashboard/occupancy")
+  public ServiceOccupancy occupancy(
+      @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+      @RequestParam(required = false) Long serviceId) {
+    return svc.occupancy(serviceId, month);
   }
 
-  private ReservationDTO toReservationDTO(Reservation r) {
-    return new ReservationDTO(
-        r.getId(),
-        r.getPet().getName(),
-        r.getPet().getOwnerName(),
-        r.getOwnerPhone(),
-        r.getReservationTime().toLocalDate(),
-        r.getReservationTime().toLocalTime(),
-        r.getPet().getSpecies(),
-        r.getStatus().name(),
-        r.getService().getDescription(),
-        r.getNotes());
+  private static <T> ResponseEntity<List<T>> paged(ReservationPage<T> page) {
+    var res = ResponseEntity.ok();
+    if (page.nextCursor() != null) {
+      res.header(NEXT_CURSOR_HEADER, page.nextCursor());
+    }
+    return res.body(page.items());
   }
-}
\ No newline at end of file
+}
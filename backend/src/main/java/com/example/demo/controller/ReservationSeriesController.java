@@ -0,0 +1,36 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.SeriesRequest;
+import com.example.demo.model.Reservation;
+import com.example.demo.service.IdempotencyStore;
+import com.example.demo.service.ReservationService;
+import com.example.demo.service.TransactionRetry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/reservations/series")
+@RequiredArgsConstructor
+public class ReservationSeriesController {
+
+  private final ReservationService svc;
+  private final TransactionRetry retry;
+  private final IdempotencyStore idempotency;
+
+  // returns every booked occurrence; each carries the new seriesId
+  @PostMapping
+  public List<Reservation> create(@RequestBody SeriesRequest req,
+      @RequestHeader(value = IdempotencyStore.HEADER, required = false) String idempotencyKey) {
+    return List.of(idempotency.execute(idempotencyKey, "reservation-series", req, Reservation[].class,
+        () -> retry.run("createSeries", () -> svc.createSeries(req)).toArray(Reservation[]::new)));
+  }
+
+  @PatchMapping("/{id}/cancel")
+  public Map<String, Integer> cancel(@PathVariable long id,
+      @RequestBody ReservationController.CancelReservationDto body) {
+    return Map.of("canceled", svc.cancelSeries(id, body.phone()));
+  }
+}
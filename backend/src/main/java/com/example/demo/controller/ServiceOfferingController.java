@@ -1,29 +1,70 @@
 package com.example.demo.controller;
 
-import com.example.demo.dto.ServiceOption;
-import com.example.demo.dto.ServiceOfferingDTO;
-import com.example.demo.model.ServiceOffering;
-import com.example.demo.repo.ServiceOfferingRepo;
-import com.example.demo.service.ServiceOfferingService;
+import com.example.demo.dto.ServiceAvailability;
+import com.example.demo.service.AvailabilityService;
+import com.example.demo.service.ServiceCatalog;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
-import java.util.List;
+import java.time.LocalDate;
 
 @RestController
 @RequestMapping("/api/services")
 @RequiredArgsConstructor
 public class ServiceOfferingController {
 
-  private final ServiceOfferingService svc;
+  private final ServiceCatalog catalog;
+  private final AvailabilityService availability;
 
+  // Served straight from the catalog's pre-rendered JSON
   @GetMapping
-  public List<ServiceOfferingDTO> all() {
-    return svc.findAll();
+  public ResponseEntity<byte[]> all(WebRequest request) {
+    var snapshot = catalog.snapshot();
+    if (request.checkNotModified(snapshot.etag())) {
+      return null;
+    }
+    return json(snapshot.json());
   }
 
   @GetMapping("/{id}")
-  public ServiceOfferingDTO one(@PathVariable Long id) {
-    return svc.findById(id);
+  public ResponseEntity<byte[]> one(@PathVariable Long id, WebRequest request) {
+    var snapshot = catalog.snapshot();
+    if (request.checkNotModified(snapshot.etag())) {
+      return null;
+    }
+    var body = snapshot.jsonById().get(id);
+    if (body == null) {
+      throw new ResponseStatusException(
+          HttpStatus.NOT_FOUND,
+          "Service with id %d not found".formatted(id));
+    }
+    return json(body);
   }
-}
\ No newline at end of file
+
+  @GetMapping("/{id}/availability")
+  public ServiceAvailability availability(@PathVariable Long id,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+    return availability.openSlots(id, from, to);
+  }
+
+  @PostMapping("/refresh")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void refresh() {
+    catalog.invalidate();
+  }
+
+  private static ResponseEntity<byte[]> json(byte[] body) {
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .cacheControl(CacheControl.noCache())
+        .body(body);
+  }
+}
@@ -0,0 +1,31 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.HoldRequest;
+import com.example.demo.dto.SlotHold;
+import com.example.demo.service.SlotHolds;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class SlotHoldController {
+
+  private final SlotHolds holds;
+
+  // getRemoteAddr is the end client's address: forwarded headers from the proxy are
+  // resolved (server.forward-headers-strategy), so the per-client cap is per customer
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public SlotHold place(@RequestBody HoldRequest req, HttpServletRequest request) {
+    return holds.place(req.serviceId(), req.time(), request.getRemoteAddr());
+  }
+
+  @DeleteMapping("/{token}")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void release(@PathVariable String token) {
+    holds.release(token);
+  }
+}
@@ -0,0 +1,30 @@
+package com.example.demo.controller;
+
+import com.example.demo.dto.WaitlistRequest;
+import com.example.demo.model.WaitlistEntry;
+import com.example.demo.service.WaitlistService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+
+  private final WaitlistService svc;
+
+  // a cancellation inside the window books the entry automatically
+  @PostMapping
+  @ResponseStatus(HttpStatus.CREATED)
+  public WaitlistEntry join(@RequestBody WaitlistRequest req) {
+    return svc.join(req);
+  }
+
+  @PatchMapping("/{id}/withdraw")
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void withdraw(@PathVariable long id,
+      @RequestBody ReservationController.CancelReservationDto body) {
+    svc.withdraw(id, body.phone());
+  }
+}
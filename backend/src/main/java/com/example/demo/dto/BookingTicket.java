@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record BookingTicket(
+        UUID id,
+        Status status,
+        Long reservationId,
+        String message,
+        Instant updatedAt) {
+
+    public enum Status {
+        PENDING, BOOKED, CONFLICT, FAILED
+    }
+
+    public static BookingTicket pending(UUID id) {
+        return new BookingTicket(id, Status.PENDING, null, null, Instant.now());
+    }
+}
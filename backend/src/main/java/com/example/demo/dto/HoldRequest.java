@@ -0,0 +1,8 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+public record HoldRequest(
+        Long serviceId,
+        LocalDateTime time) {
+}
@@ -0,0 +1,25 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Pet;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/** New pet plus its first booking; the pet is only stored if the booking succeeds. */
+public record PetReservationRequest(
+        Pet pet,
+        Long serviceId,
+        LocalDateTime reservationTime,
+        String notes,
+        String holdToken,
+        LocalDate checkOut) {
+
+    public PetReservationRequest(Pet pet, Long serviceId, LocalDateTime reservationTime, String notes) {
+        this(pet, serviceId, reservationTime, notes, null, null);
+    }
+
+    public PetReservationRequest(Pet pet, Long serviceId, LocalDateTime reservationTime, String notes,
+            String holdToken) {
+        this(pet, serviceId, reservationTime, notes, holdToken, null);
+    }
+}
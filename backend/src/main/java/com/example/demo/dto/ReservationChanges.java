@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * A slice of the reservation change feed. Pass {@code watermark} back as
+ * {@code since} on the next poll; {@code hasMore} means poll again right away.
+ */
+public record ReservationChanges<T>(List<T> items, long watermark, boolean hasMore) {
+}
@@ -3,6 +3,8 @@ package com.example.demo.dto;
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+import com.example.demo.model.Reservation;
+
 public record ReservationDTO(
         Long id,
         String petName,
@@ -10,8 +12,23 @@ public record ReservationDTO(
         String phone,
         LocalDate date,
         LocalTime time,
+        LocalDate checkOut,
         String species,
         String status,
         String service,
         String notes) {
+    public static ReservationDTO from(Reservation r) {
+        return new ReservationDTO(
+                r.getId(),
+                r.getPet().getName(),
+                r.getPet().getOwnerName(),
+                r.getOwnerPhone(),
+                r.getReservationTime().toLocalDate(),
+                r.getReservationTime().toLocalTime(),
+                r.getCheckOut(),
+                r.getPet().getSpecies(),
+                r.getStatus().name(),
+                r.getService().getDescription(),
+                r.getNotes());
+    }
 }
@@ -0,0 +1,18 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Reservation;
+
+/**
+ * Published by ReservationService inside its transaction. The notification
+ * outbox records it there; every other listener acts after commit.
+ */
+public record ReservationEvent(Type type, ReservationDTO reservation) {
+
+    public enum Type {
+        CREATED, CANCELED, COMPLETED
+    }
+
+    public static ReservationEvent of(Type type, Reservation r) {
+        return new ReservationEvent(type, ReservationDTO.from(r));
+    }
+}
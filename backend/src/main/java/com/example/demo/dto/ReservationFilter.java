@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.ReservationStatus;
+
+import java.time.LocalDateTime;
+
+/** Optional listing filters; {@code null} means "don't filter on this". */
+public record ReservationFilter(
+        LocalDateTime from,
+        LocalDateTime to,
+        String phone,
+        ReservationStatus status,
+        Long serviceId) {
+}
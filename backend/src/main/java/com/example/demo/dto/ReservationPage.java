@@ -0,0 +1,7 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/** One keyset page; {@code nextCursor} is null on the last page. */
+public record ReservationPage<T>(List<T> items, String nextCursor) {
+}
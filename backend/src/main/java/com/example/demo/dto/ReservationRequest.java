@@ -1,10 +1,22 @@
 package com.example.demo.dto;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 public record ReservationRequest(
         Long petId,
         Long serviceId,
         LocalDateTime reservationTime,
-        String notes) {
+        String notes,
+        String holdToken,
+        LocalDate checkOut) {
+
+    public ReservationRequest(Long petId, Long serviceId, LocalDateTime reservationTime, String notes) {
+        this(petId, serviceId, reservationTime, notes, null, null);
+    }
+
+    public ReservationRequest(Long petId, Long serviceId, LocalDateTime reservationTime, String notes,
+            String holdToken) {
+        this(petId, serviceId, reservationTime, notes, holdToken, null);
+    }
 }
@@ -0,0 +1,39 @@
+package com.example.demo.dto;
+
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.model.SeriesFrequency;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Recurring booking: every {@code frequency} from {@code firstTime}, for {@code count} times or until {@code until}. */
+public record SeriesRequest(
+        Long petId,
+        Long serviceId,
+        LocalDateTime firstTime,
+        SeriesFrequency frequency,
+        Integer count,
+        LocalDate until,
+        String notes) {
+
+    public List<LocalDateTime> occurrences(int max) {
+        if (firstTime == null || frequency == null || (count == null) == (until == null)) {
+            throw new InvalidBookingException("A series needs a first time, a frequency and either a count or an end date");
+        }
+        var times = new ArrayList<LocalDateTime>();
+        for (LocalDateTime t = firstTime;
+             count != null ? times.size() < count : !t.toLocalDate().isAfter(until);
+             t = t.plusWeeks(frequency.weeks())) {
+            if (times.size() == max) {
+                throw new InvalidBookingException("A series may have at most " + max + " occurrences");
+            }
+            times.add(t);
+        }
+        if (times.isEmpty()) {
+            throw new InvalidBookingException("The series has no occurrences");
+        }
+        return times;
+    }
+}
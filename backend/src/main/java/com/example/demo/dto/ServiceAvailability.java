@@ -0,0 +1,10 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record ServiceAvailability(
+        Long serviceId,
+        int slotMinutes,
+        List<LocalDateTime> openSlots) {
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/** Kennels (stations) taken per night for a stay service, e.g. one month of boarding. */
+public record ServiceOccupancy(
+        Long serviceId,
+        int capacity,
+        List<Night> nights) {
+
+    public record Night(LocalDate date, int booked, int free) {
+    }
+}
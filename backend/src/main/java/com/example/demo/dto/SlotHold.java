@@ -0,0 +1,12 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+/** A short lease on a start time; pass {@code token} as holdToken when booking it. */
+public record SlotHold(
+        String token,
+        Long serviceId,
+        LocalDateTime time,
+        Instant expiresAt) {
+}
@@ -0,0 +1,9 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/** Start time of a slot-blocking booking and the station it occupies. */
+public record StationBooking(
+        Long stationId,
+        LocalDateTime time) {
+}
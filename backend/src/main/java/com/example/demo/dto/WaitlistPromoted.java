@@ -0,0 +1,13 @@
+package com.example.demo.dto;
+
+import java.time.LocalDateTime;
+
+/** Published inside the cancelling transaction when a freed slot goes to a waiter. */
+public record WaitlistPromoted(
+        Long entryId,
+        Long reservationId,
+        String ownerPhone,
+        String petName,
+        String service,
+        LocalDateTime time) {
+}
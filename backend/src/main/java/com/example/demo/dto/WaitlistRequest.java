@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/** Join the waitlist for any free slot of the service on {@code day} between the two times. */
+public record WaitlistRequest(
+        Long petId,
+        Long serviceId,
+        LocalDate day,
+        LocalTime windowStart,
+        LocalTime windowEnd,
+        String notes) {
+}
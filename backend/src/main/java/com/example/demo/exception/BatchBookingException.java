@@ -0,0 +1,27 @@
+package com.example.demo.exception;
+
+import java.util.List;
+
+/** A multi-item booking was rejected as a whole; {@link #getItems()} says which items and why. */
+public class BatchBookingException extends RuntimeException {
+    public record ItemError(int index, String message) {
+    }
+
+    private final boolean conflict;
+    private final List<ItemError> items;
+
+    public BatchBookingException(String message, boolean conflict, List<ItemError> items) {
+        super(message);
+        this.conflict = conflict;
+        this.items = List.copyOf(items);
+    }
+
+    /** True if at least one item clashed with a booking; false if items were only invalid. */
+    public boolean isConflict() {
+        return conflict;
+    }
+
+    public List<ItemError> getItems() {
+        return items;
+    }
+}
@@ -1,7 +1,27 @@
 package com.example.demo.exception;
 
+import java.time.LocalDateTime;
+
 public class BookingConflictException extends RuntimeException {
+    private final Long serviceId;
+    private final LocalDateTime requestedTime;
+
     public BookingConflictException(String message) {
+        this(message, null, null);
+    }
+
+    public BookingConflictException(String message, Long serviceId, LocalDateTime requestedTime) {
         super(message);
+        this.serviceId = serviceId;
+        this.requestedTime = requestedTime;
+    }
+
+    /** Service the clashing request was for, or null when unknown. */
+    public Long getServiceId() {
+        return serviceId;
+    }
+
+    public LocalDateTime getRequestedTime() {
+        return requestedTime;
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,55 @@
 package com.example.demo.handler;
 
+import com.example.demo.exception.BatchBookingException;
 import com.example.demo.exception.BookingConflictException;
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.service.AvailabilityService;
 import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
+@Slf4j
 @ControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
+  // optional so web slices without the booking services still get an advice
+  private final ObjectProvider<AvailabilityService> availability;
+
+  @Value("${availability.conflict-suggestions:3}")
+  private int suggestions;
+
+  // a conflict carries the nearest open starts so clients need not retry blindly
   @ExceptionHandler(BookingConflictException.class)
   public ResponseEntity<Map<String, Object>> handleConflict(BookingConflictException ex) {
-    return build(HttpStatus.CONFLICT, ex.getMessage());
+    var body = body(HttpStatus.CONFLICT, ex.getMessage());
+    body.put("alternatives", alternativesFor(ex));
+    return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+  }
+
+  @ExceptionHandler(BatchBookingException.class)
+  public ResponseEntity<Map<String, Object>> handleBatch(BatchBookingException ex) {
+    var status = ex.isConflict() ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+    var body = body(status, ex.getMessage());
+    body.put("items", ex.getItems());
+    return ResponseEntity.status(status).body(body);
+  }
+
+  @ExceptionHandler(InvalidBookingException.class)
+  public ResponseEntity<Map<String, Object>> handleInvalidBooking(InvalidBookingException ex) {
+    return build(HttpStatus.BAD_REQUEST, ex.getMessage());
   }
 
   @ExceptionHandler(EntityNotFoundException.class)
@@ -21,17 +57,47 @@ public class GlobalExceptionHandler {
     return build(HttpStatus.NOT_FOUND, "Requested resource not found.");
   }
 
+  @ExceptionHandler(ResponseStatusException.class)
+  public ResponseEntity<Map<String, Object>> handleStatus(ResponseStatusException ex) {
+    var status = HttpStatus.valueOf(ex.getStatusCode().value());
+    return build(status, ex.getReason() != null ? ex.getReason() : status.getReasonPhrase());
+  }
+
+  // serialization failures / deadlocks that survived TransactionRetry
+  @ExceptionHandler(ConcurrencyFailureException.class)
+  public ResponseEntity<Map<String, Object>> handleContention(ConcurrencyFailureException ex) {
+    return build(HttpStatus.SERVICE_UNAVAILABLE, "Booking is busy right now, please try again.");
+  }
+
   @ExceptionHandler(Exception.class) // fall-back
   public ResponseEntity<Map<String, Object>> handleGeneric(Exception ex) {
     return build(HttpStatus.INTERNAL_SERVER_ERROR, "Unexpected error occurred.");
   }
 
+  private List<LocalDateTime> alternativesFor(BookingConflictException ex) {
+    var finder = availability.getIfAvailable();
+    if (finder == null || ex.getServiceId() == null || ex.getRequestedTime() == null) {
+      return List.of();
+    }
+    try {
+      return finder.nearestFree(ex.getServiceId(), ex.getRequestedTime(), suggestions);
+    } catch (RuntimeException e) {
+      // suggestions are best effort; the 409 itself must still go out
+      log.warn("Could not compute booking alternatives", e);
+      return List.of();
+    }
+  }
+
   private ResponseEntity<Map<String, Object>> build(HttpStatus status, String msg) {
-    return ResponseEntity.status(status)
-        .body(Map.of(
-            "timestamp", Instant.now().toString(),
-            "status", status.value(),
-            "error", status.getReasonPhrase(),
-            "message", msg));
-  }
-}
\ No newline at end of file
+    return ResponseEntity.status(status).body(body(status, msg));
+  }
+
+  private Map<String, Object> body(HttpStatus status, String msg) {
+    var body = new LinkedHashMap<String, Object>();
+    body.put("timestamp", Instant.now().toString());
+    body.put("status", status.value());
+    body.put("error", status.getReasonPhrase());
+    body.put("message", msg);
+    return body;
+  }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.model;
+
+import com.example.demo.dto.BookingTicket;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+@Entity
+@Table(name = "booking_ticket")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BookingTicketRecord {
+  @Id
+  private UUID id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private BookingTicket.Status status;
+
+  private Long reservationId;
+
+  @Column(columnDefinition = "TEXT")
+  private String message;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @Column(nullable = false)
+  private Instant updatedAt;
+
+  public BookingTicket toTicket() {
+    return new BookingTicket(id, status, reservationId, message, updatedAt);
+  }
+}
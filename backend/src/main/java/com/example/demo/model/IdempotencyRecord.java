@@ -0,0 +1,28 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "idempotency_key")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IdempotencyRecord {
+  // scope + ':' + client key
+  @Id
+  private String id;
+
+  @Column(nullable = false)
+  private String requestHash;
+
+  // JSON body of the first successful response; null while that request runs
+  @Column(columnDefinition = "TEXT")
+  private String response;
+
+  @Column(nullable = false)
+  private LocalDateTime createdAt;
+}
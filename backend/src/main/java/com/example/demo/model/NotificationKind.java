@@ -0,0 +1,5 @@
+package com.example.demo.model;
+
+public enum NotificationKind {
+  BOOKED, CANCELED, COMPLETED, WAITLIST_PROMOTED
+}
@@ -0,0 +1,60 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/** One customer message waiting in, or already sent from, the notification outbox. */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxMessage {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  private Long reservationId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationKind kind;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private NotificationChannel channel;
+
+  @Column(nullable = false)
+  private String recipient;
+
+  @Column(nullable = false, columnDefinition = "TEXT")
+  private String body;
+
+  @Builder.Default
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private OutboxStatus status = OutboxStatus.PENDING;
+
+  // claims so far, including the one in flight
+  @Builder.Default
+  @Column(nullable = false)
+  private int attempts = 0;
+
+  // earliest time a dispatcher may claim the row; pushed forward while a claim is in flight
+  @Builder.Default
+  @Column(nullable = false)
+  private LocalDateTime nextAttemptAt = LocalDateTime.now();
+
+  @Column(columnDefinition = "TEXT")
+  private String lastError;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+
+  private LocalDateTime sentAt;
+}
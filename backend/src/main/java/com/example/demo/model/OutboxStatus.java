@@ -0,0 +1,5 @@
+package com.example.demo.model;
+
+public enum OutboxStatus {
+  PENDING, SENT, FAILED
+}
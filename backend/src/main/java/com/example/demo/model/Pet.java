@@ -1,14 +1,21 @@
 package com.example.demo.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.util.Locale;
+import java.util.regex.Pattern;
+
 @Entity
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Pet {
+  private static final Pattern ASCII_SPACE_EDGES = Pattern.compile("^[ \\t\\n\\r\\f\\x0B]+|[ \\t\\n\\r\\f\\x0B]+$");
+  private static final Pattern ASCII_SPACE_RUN = Pattern.compile("[ \\t\\n\\r\\f\\x0B]+");
+
   @Id
   @GeneratedValue(strategy = GenerationType.IDENTITY)
   private Long id;
@@ -26,4 +33,36 @@ public class Pet {
   private String ownerName;
   @Column(nullable = false)
   private String ownerPhone;
-}
\ No newline at end of file
+
+  // Dedup key: digits of the phone + trimmed, lower-cased name (see V6 migration)
+  @JsonIgnore
+  @Column(nullable = false)
+  private String ownerPhoneKey;
+  @JsonIgnore
+  @Column(nullable = false)
+  private String nameKey;
+
+  @PrePersist
+  @PreUpdate
+  public void stampKeys() {
+    ownerPhoneKey = phoneKey(ownerPhone);
+    nameKey = nameKey(name);
+  }
+
+  public static String phoneKey(String phone) {
+    return phone == null ? null : phone.replaceAll("[^0-9]", "");
+  }
+
+  /** Same number however it was typed: "(555) 123-4567" matches "5551234567". */
+  public static boolean samePhone(String a, String b) {
+    String key = phoneKey(a);
+    return key != null && !key.isEmpty() && key.equals(phoneKey(b));
+  }
+
+  // ASCII whitespace only, exactly as the V6 migration trims and collapses it in SQL
+  public static String nameKey(String name) {
+    return name == null ? null
+        : ASCII_SPACE_RUN.matcher(ASCII_SPACE_EDGES.matcher(name).replaceAll("")).replaceAll(" ")
+            .toLowerCase(Locale.ROOT);
+  }
+}
@@ -2,8 +2,11 @@ package com.example.demo.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Generated;
+import org.hibernate.generator.EventType;
 
 @Entity
 @Data
@@ -31,6 +34,14 @@ public class Reservation {
   @Column(nullable = false)
   private LocalDateTime reservationTime;
 
+  // boarding only: the stay covers the nights from reservationTime's date up to this date
+  private LocalDate checkOut;
+
+  // false for services (BOARD) that never clash; feeds the reservation_station_no_overlap constraint
+  @Builder.Default
+  @Column(nullable = false)
+  private boolean blocksSlot = true;
+
   @CreationTimestamp
   @Column(updatable = false)
   private LocalDateTime createdAt;
@@ -40,4 +51,15 @@ public class Reservation {
   private Long version;
 
   private String notes;
+
+  // station the booking occupies; for boarding, the kennel
+  private Long stationId;
+
+  // set when this booking is one occurrence of a ReservationSeries
+  private Long seriesId;
+
+  // id of the transaction that last wrote the row; stamped by the reservation_stamp_change trigger
+  @Generated(event = {EventType.INSERT, EventType.UPDATE})
+  @Column(insertable = false, updatable = false)
+  private Long changeXid;
 }
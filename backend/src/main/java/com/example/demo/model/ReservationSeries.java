@@ -0,0 +1,45 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/** A recurring booking rule; its occurrences are ordinary reservations pointing back via series_id. */
+@Entity
+@Table(name = "reservation_series")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReservationSeries {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long petId;
+
+  @Column(nullable = false)
+  private Long serviceId;
+
+  @Column(nullable = false)
+  private String ownerPhone;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private SeriesFrequency frequency;
+
+  @Column(nullable = false)
+  private LocalDateTime firstTime;
+
+  @Column(nullable = false)
+  private int occurrences;
+
+  private String notes;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+}
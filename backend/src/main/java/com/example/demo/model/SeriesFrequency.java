@@ -0,0 +1,15 @@
+package com.example.demo.model;
+
+public enum SeriesFrequency {
+  WEEKLY(1), BIWEEKLY(2);
+
+  private final int weeks;
+
+  SeriesFrequency(int weeks) {
+    this.weeks = weeks;
+  }
+
+  public int weeks() {
+    return weeks;
+  }
+}
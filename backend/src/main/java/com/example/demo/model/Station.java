@@ -0,0 +1,26 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/** One physical place a service runs at (a grooming table, a wash tub); serves one booking at a time. */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Station {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long serviceId;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Builder.Default
+  @Column(nullable = false)
+  private boolean active = true;
+}
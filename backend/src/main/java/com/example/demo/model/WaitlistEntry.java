@@ -0,0 +1,54 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/** A customer waiting for a slot of a service on one day, anywhere inside [windowStart, windowEnd]. */
+@Entity
+@Table(name = "waitlist_entry")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WaitlistEntry {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long petId;
+
+  @Column(nullable = false)
+  private Long serviceId;
+
+  @Column(nullable = false)
+  private String ownerPhone;
+
+  @Column(nullable = false)
+  private LocalDate preferredDay;
+
+  @Column(nullable = false)
+  private LocalTime windowStart;
+
+  @Column(nullable = false)
+  private LocalTime windowEnd;
+
+  private String notes;
+
+  @Builder.Default
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private WaitlistStatus status = WaitlistStatus.WAITING;
+
+  // the booking it was promoted into
+  private Long reservationId;
+
+  @CreationTimestamp
+  @Column(updatable = false)
+  private LocalDateTime createdAt;
+}
@@ -0,0 +1,5 @@
+package com.example.demo.model;
+
+public enum WaitlistStatus {
+  WAITING, PROMOTED, WITHDRAWN
+}
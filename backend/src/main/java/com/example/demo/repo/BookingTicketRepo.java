@@ -0,0 +1,40 @@
+package com.example.demo.repo;
+
+import com.example.demo.dto.BookingTicket;
+import com.example.demo.model.BookingTicketRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// each write commits on its own so a poll on another replica sees it at once,
+// except resolve, which joins the booking transaction it reports on
+public interface BookingTicketRepo extends JpaRepository<BookingTicketRecord, UUID> {
+
+  // only a ticket still PENDING moves; 0 means it was already expired (or resolved)
+  @Transactional
+  @Modifying
+  @Query("UPDATE BookingTicketRecord t SET t.status = :status, t.reservationId = :reservationId, " +
+         "t.message = :message, t.updatedAt = :now WHERE t.id = :id AND t.status = :pending")
+  int resolve(@Param("id") UUID id, @Param("status") BookingTicket.Status status,
+      @Param("reservationId") Long reservationId, @Param("message") String message, @Param("now") Instant now,
+      @Param("pending") BookingTicket.Status pending);
+
+  // a ticket its node never got to, because the node stopped with the job still queued
+  @Transactional
+  @Modifying
+  @Query("UPDATE BookingTicketRecord t SET t.status = :failed, t.message = :message, t.updatedAt = :now " +
+         "WHERE t.id = :id AND t.status = :pending AND t.createdAt < :cutoff")
+  int expire(@Param("id") UUID id, @Param("cutoff") Instant cutoff, @Param("message") String message,
+      @Param("now") Instant now, @Param("pending") BookingTicket.Status pending,
+      @Param("failed") BookingTicket.Status failed);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM BookingTicketRecord t WHERE t.status <> :pending AND t.updatedAt < :cutoff")
+  int deleteResolvedBefore(@Param("cutoff") Instant cutoff, @Param("pending") BookingTicket.Status pending);
+}
@@ -0,0 +1,54 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+// each write commits on its own so other replicas see claims immediately
+public interface IdempotencyRepo extends JpaRepository<IdempotencyRecord, String> {
+
+  /** Returns 1 if this caller now owns the key, 0 if someone else does. */
+  @Transactional
+  @Modifying
+  @Query(value = "INSERT INTO idempotency_key (id, request_hash, created_at) VALUES (:id, :hash, now()) " +
+                 "ON CONFLICT (id) DO NOTHING",
+         nativeQuery = true)
+  int claim(@Param("id") String id, @Param("hash") String hash);
+
+  @Transactional
+  @Modifying
+  @Query("UPDATE IdempotencyRecord r SET r.response = :response WHERE r.id = :id")
+  int complete(@Param("id") String id, @Param("response") String response);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.response IS NULL")
+  int release(@Param("id") String id);
+
+  // expired entries, and claims whose request died before completing
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id " +
+         "AND (r.createdAt < :expiredBefore OR (r.response IS NULL AND r.createdAt < :abandonedBefore))")
+  int deleteIfStale(@Param("id") String id,
+      @Param("expiredBefore") LocalDateTime expiredBefore,
+      @Param("abandonedBefore") LocalDateTime abandonedBefore);
+
+  @Transactional
+  @Modifying
+  @Query("DELETE FROM IdempotencyRecord r WHERE r.createdAt < :cutoff")
+  int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+
+  // size bound: keep only the newest maxEntries rows
+  @Transactional
+  @Modifying
+  @Query(value = "DELETE FROM idempotency_key WHERE id IN " +
+                 "(SELECT id FROM idempotency_key ORDER BY created_at DESC OFFSET :maxEntries)",
+         nativeQuery = true)
+  int trimTo(@Param("maxEntries") int maxEntries);
+}
@@ -0,0 +1,49 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.OutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxRepo extends JpaRepository<OutboxMessage, Long> {
+
+  // Claims up to :batch due rows in one statement and commits at once. SKIP
+  // LOCKED keeps concurrent dispatchers on disjoint rows; pushing
+  // next_attempt_at out by the lease keeps them off the claimed rows while
+  // they are being sent, and hands them back if this node dies mid-send.
+  @Transactional
+  @Query(value = "UPDATE notification_outbox " +
+                 "SET attempts = attempts + 1, next_attempt_at = now() + make_interval(secs => :leaseSeconds) " +
+                 "WHERE id IN (SELECT id FROM notification_outbox " +
+                 "             WHERE status = 'PENDING' AND next_attempt_at <= now() " +
+                 "             ORDER BY next_attempt_at, id LIMIT :batch FOR UPDATE SKIP LOCKED) " +
+                 "RETURNING *",
+         nativeQuery = true)
+  List<OutboxMessage> claimDue(@Param("batch") int batch, @Param("leaseSeconds") int leaseSeconds);
+
+  @Transactional
+  @Modifying
+  @Query(value = "UPDATE notification_outbox SET status = 'SENT', sent_at = now(), last_error = NULL " +
+                 "WHERE id IN (:ids)",
+         nativeQuery = true)
+  int markSent(@Param("ids") Collection<Long> ids);
+
+  @Transactional
+  @Modifying
+  @Query(value = "UPDATE notification_outbox " +
+                 "SET next_attempt_at = now() + make_interval(secs => :delaySeconds), last_error = :error " +
+                 "WHERE id = :id",
+         nativeQuery = true)
+  int retryLater(@Param("id") Long id, @Param("delaySeconds") long delaySeconds, @Param("error") String error);
+
+  @Transactional
+  @Modifying
+  @Query(value = "UPDATE notification_outbox SET status = 'FAILED', last_error = :error WHERE id = :id",
+         nativeQuery = true)
+  int markFailed(@Param("id") Long id, @Param("error") String error);
+}
@@ -2,10 +2,25 @@ package com.example.demo.repo;
 
 import com.example.demo.model.Pet;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface PetRepo extends JpaRepository<Pet, Long> {
 
+  // served by the uk_pet_owner_key unique index
+  Optional<Pet> findByOwnerPhoneKeyAndNameKey(String ownerPhoneKey, String nameKey);
+
+  // loses quietly to a concurrent insert of the same key instead of aborting the transaction
+  @Modifying
+  @Query(value = "INSERT INTO pet (name, species, breed, age, owner_name, owner_phone, owner_phone_key, name_key) " +
+                 "VALUES (:#{#p.name}, :#{#p.species}, :#{#p.breed}, :#{#p.age}, " +
+                 ":#{#p.ownerName}, :#{#p.ownerPhone}, :#{#p.ownerPhoneKey}, :#{#p.nameKey}) " +
+                 "ON CONFLICT (owner_phone_key, name_key) DO NOTHING",
+         nativeQuery = true)
+  int insertIfAbsent(@Param("p") Pet p);
 }
@@ -0,0 +1,72 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.Reservation;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.List;
+
+/**
+ * Multi-row reservation insert as one JDBC batch. Reservation ids are
+ * IDENTITY, which makes Hibernate insert row by row, so batches go through
+ * JDBC and the caller reloads the rows it needs as entities.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReservationBatchInserter {
+
+  private static final String INSERT =
+      "INSERT INTO reservation (pet_id, service_id, reservation_time, status, notes, owner_phone, blocks_slot, station_id, series_id, version) " +
+      "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+  private final JdbcTemplate jdbc;
+
+  /** Inserts {@code rows} in order and returns their generated ids in the same order. */
+  public List<Long> insert(List<Reservation> rows) {
+    var keys = new GeneratedKeyHolder();
+    jdbc.batchUpdate(con -> con.prepareStatement(INSERT, new String[] {"id"}),
+        new BatchPreparedStatementSetter() {
+          @Override
+          public void setValues(PreparedStatement ps, int i) throws SQLException {
+            Reservation r = rows.get(i);
+            ps.setLong(1, r.getPet().getId());
+            ps.setLong(2, r.getService().getId());
+            ps.setTimestamp(3, Timestamp.valueOf(r.getReservationTime()));
+            ps.setString(4, r.getStatus().name());
+            if (r.getNotes() == null) {
+              ps.setNull(5, Types.VARCHAR);
+            } else {
+              ps.setString(5, r.getNotes());
+            }
+            ps.setString(6, r.getOwnerPhone());
+            ps.setBoolean(7, r.isBlocksSlot());
+            if (r.getStationId() == null) {
+              ps.setNull(8, Types.BIGINT);
+            } else {
+              ps.setLong(8, r.getStationId());
+            }
+            if (r.getSeriesId() == null) {
+              ps.setNull(9, Types.BIGINT);
+            } else {
+              ps.setLong(9, r.getSeriesId());
+            }
+          }
+
+          @Override
+          public int getBatchSize() {
+            return rows.size();
+          }
+        },
+        keys);
+    return keys.getKeyList().stream()
+        .map(k -> ((Number) k.get("id")).longValue())
+        .toList();
+  }
+}
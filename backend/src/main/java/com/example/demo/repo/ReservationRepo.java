@@ -1,39 +1,132 @@
 package com.example.demo.repo;
 
+import com.example.demo.dto.StationBooking;
 import com.example.demo.model.Reservation;
 import com.example.demo.model.ReservationStatus;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.persistence.LockModeType;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface ReservationRepo extends JpaRepository<Reservation, Long> {
+public interface ReservationRepo extends JpaRepository<Reservation, Long>,
+    JpaSpecificationExecutor<Reservation> {
   List<Reservation> findByReservationTimeBetween(LocalDateTime start, LocalDateTime end);
 
+  // Listings always render pet and service, so fetch them in the same statement
+  @Override
+  @EntityGraph(attributePaths = {"pet", "service"})
+  List<Reservation> findAll();
+
+  @EntityGraph(attributePaths = {"pet", "service"})
   List<Reservation> findByPetId(Long petId);
 
+  @EntityGraph(attributePaths = {"pet", "service"})
+  List<Reservation> findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(
+      Long from, Long fence, Limit limit);
+
+  @EntityGraph(attributePaths = {"pet", "service"})
+  List<Reservation> findByChangeXidOrderById(Long xid);
+
+  // oldest transaction still running; every one below it has committed or rolled back
+  @Query(value = "SELECT CAST(CAST(pg_snapshot_xmin(pg_current_snapshot()) AS text) AS bigint)", nativeQuery = true)
+  long changeFence();
+
+  @Query(value = "SELECT version FROM reservation_watermark WHERE id = 1", nativeQuery = true)
+  long currentWatermark();
+
+  // runs after the writing transaction has committed, in a transaction of its own
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  @Modifying
+  @Query(value = "UPDATE reservation_watermark SET version = version + 1 WHERE id = 1", nativeQuery = true)
+  int bumpWatermark();
+
   List<Reservation> findByReservationTimeBetweenAndStatus(
       LocalDateTime start,
       LocalDateTime end,
       ReservationStatus status);
 
-  @Lock(LockModeType.PESSIMISTIC_WRITE)
-  @Query("SELECT CASE WHEN COUNT(r) > 0 THEN true ELSE false END " +
-         "FROM Reservation r " +
-         "WHERE r.reservationTime BETWEEN :start AND :end " +
+  @Query("SELECT new com.example.demo.dto.StationBooking(r.stationId, r.reservationTime) FROM Reservation r " +
+         "WHERE r.reservationTime >= :from " +
          "AND r.status = :status " +
-         "AND r.service.code != :serviceExcluded")
-  boolean existsByReservationTimeBetweenAndStatusAndService_CodeNot(
+         "AND r.blocksSlot = true")
+  List<StationBooking> findStationBookingsFrom(
+      @Param("from") LocalDateTime from,
+      @Param("status") ReservationStatus status);
+
+  @Query("SELECT new com.example.demo.dto.StationBooking(r.stationId, r.reservationTime) FROM Reservation r " +
+         "WHERE r.reservationTime >= :start AND r.reservationTime < :end " +
+         "AND r.status = :status " +
+         "AND r.blocksSlot = true " +
+         "ORDER BY r.reservationTime")
+  List<StationBooking> findStationBookingsBetween(
       @Param("start") LocalDateTime start,
       @Param("end") LocalDateTime end,
-      @Param("status") ReservationStatus status,
-      @Param("serviceExcluded") String serviceExcluded);
+      @Param("status") ReservationStatus status);
+
+  // served by idx_reservation_service_busy; one row per occupied station
+  @Query("SELECT DISTINCT r.stationId FROM Reservation r " +
+         "WHERE r.service.id = :serviceId " +
+         "AND r.reservationTime >= :start AND r.reservationTime <= :end " +
+         "AND r.status = :status " +
+         "AND r.blocksSlot = true")
+  List<Long> findBusyStations(
+      @Param("serviceId") Long serviceId,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end,
+      @Param("status") ReservationStatus status);
+
+  // range overlap on idx_reservation_stay; one row per occupied kennel
+  @Query(value = "SELECT DISTINCT station_id FROM reservation " +
+                 "WHERE service_id = :serviceId AND status = 'BOOKED' " +
+                 "AND stay && daterange(:from, :to, '[)') " +
+                 "AND station_id IS NOT NULL",
+         nativeQuery = true)
+  List<Long> findBusyKennels(
+      @Param("serviceId") Long serviceId,
+      @Param("from") LocalDate from,
+      @Param("to") LocalDate to);
+
+  interface NightCount {
+    LocalDate getNight();
+
+    int getBooked();
+  }
+
+  // one row per night in [from, to), each counted through idx_reservation_stay
+  @Query(value = "SELECT CAST(d AS date) AS night, CAST(count(r.id) AS int) AS booked " +
+                 "FROM generate_series(CAST(:from AS timestamp), CAST(:to AS timestamp) - INTERVAL '1 day', INTERVAL '1 day') d " +
+                 "LEFT JOIN reservation r ON r.service_id = :serviceId AND r.status = 'BOOKED' " +
+                 "AND r.stay @> CAST(d AS date) " +
+                 "GROUP BY d ORDER BY d",
+         nativeQuery = true)
+  List<NightCount> countNightlyStays(
+      @Param("serviceId") Long serviceId,
+      @Param("from") LocalDate from,
+      @Param("to") LocalDate to);
+
+  // one statement for the whole series; RETURNING says which rows actually flipped
+  @Query(value = "UPDATE reservation SET status = 'CANCELED', version = version + 1 " +
+                 "WHERE series_id = :seriesId AND status = 'BOOKED' AND reservation_time > :after " +
+                 "RETURNING id",
+         nativeQuery = true)
+  List<Long> cancelUpcomingInSeries(@Param("seriesId") Long seriesId, @Param("after") LocalDateTime after);
+
+  @EntityGraph(attributePaths = {"pet", "service"})
+  List<Reservation> findByIdIn(Collection<Long> ids);
 
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   @Query("SELECT r FROM Reservation r WHERE r.id = :id")
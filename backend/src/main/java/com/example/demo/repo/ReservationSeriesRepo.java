@@ -0,0 +1,7 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReservationSeriesRepo extends JpaRepository<ReservationSeries, Long> {
+}
@@ -0,0 +1,50 @@
+package com.example.demo.repo;
+
+import com.example.demo.dto.ReservationCursor;
+import com.example.demo.dto.ReservationFilter;
+import com.example.demo.model.Reservation;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+
+public final class ReservationSpecs {
+
+  /** Stable keyset order backed by idx_reservation_time_id. */
+  public static final Sort KEYSET_ORDER = Sort.by("reservationTime", "id");
+
+  private ReservationSpecs() {
+  }
+
+  public static Specification<Reservation> matching(ReservationFilter f) {
+    return (r, q, cb) -> {
+      var where = new ArrayList<Predicate>();
+      if (f.from() != null)
+        where.add(cb.greaterThanOrEqualTo(r.get("reservationTime"), f.from()));
+      if (f.to() != null)
+        where.add(cb.lessThan(r.get("reservationTime"), f.to()));
+      if (f.phone() != null && !f.phone().isBlank())
+        where.add(cb.like(r.get("ownerPhone"), "%" + escapeLike(f.phone().trim()) + "%", '\\'));
+      if (f.status() != null)
+        where.add(cb.equal(r.get("status"), f.status()));
+      if (f.serviceId() != null)
+        where.add(cb.equal(r.get("service").get("id"), f.serviceId()));
+      return cb.and(where.toArray(Predicate[]::new));
+    };
+  }
+
+  // typed text matches literally: no caller-supplied wildcards
+  private static String escapeLike(String text) {
+    return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+
+  /** Rows strictly after the cursor in (reservationTime, id) order. */
+  public static Specification<Reservation> after(ReservationCursor c) {
+    return (r, q, cb) -> cb.or(
+        cb.greaterThan(r.get("reservationTime"), c.time()),
+        cb.and(
+            cb.equal(r.get("reservationTime"), c.time()),
+            cb.greaterThan(r.get("id"), c.id())));
+  }
+}
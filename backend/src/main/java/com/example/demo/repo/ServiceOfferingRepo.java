@@ -2,9 +2,17 @@ package com.example.demo.repo;
 
 import com.example.demo.model.ServiceOffering;
 import org.springframework.data.jpa.repository.JpaRepository;
-
-import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ServiceOfferingRepo extends JpaRepository<ServiceOffering, Long> {
 
+  @Query(value = "SELECT version FROM catalog_version WHERE id = 1", nativeQuery = true)
+  long catalogVersion();
+
+  @Transactional
+  @Modifying
+  @Query(value = "UPDATE catalog_version SET version = version + 1 WHERE id = 1", nativeQuery = true)
+  int bumpCatalogVersion();
 }
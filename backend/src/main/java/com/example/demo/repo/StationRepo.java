@@ -0,0 +1,11 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.Station;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface StationRepo extends JpaRepository<Station, Long> {
+
+  List<Station> findByActiveTrueOrderByServiceIdAscIdAsc();
+}
@@ -0,0 +1,26 @@
+package com.example.demo.repo;
+
+import com.example.demo.model.WaitlistEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+public interface WaitlistRepo extends JpaRepository<WaitlistEntry, Long> {
+
+  // first come, first served among windows covering the time; one probe of
+  // idx_waitlist_match. SKIP LOCKED lets two cancellations at the same time
+  // promote two different waiters instead of queueing on one row.
+  @Query(value = "SELECT * FROM waitlist_entry " +
+                 "WHERE service_id = :serviceId AND preferred_day = :day AND status = 'WAITING' " +
+                 "AND window_start <= :at AND window_end >= :at " +
+                 "ORDER BY id LIMIT 1 FOR UPDATE SKIP LOCKED",
+         nativeQuery = true)
+  Optional<WaitlistEntry> claimBestMatch(
+      @Param("serviceId") Long serviceId,
+      @Param("day") LocalDate day,
+      @Param("at") LocalTime at);
+}
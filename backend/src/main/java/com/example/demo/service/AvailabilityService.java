@@ -0,0 +1,141 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReservationProps;
+import com.example.demo.dto.ServiceAvailability;
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.repo.ReservationRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Open start times per service, computed from the compiled service window,
+ * the booking buffer, the service's {@link Stations}, their
+ * {@link SlotSchedule} bitmaps and live {@link SlotHolds}. A time is open
+ * while at least one station is free. Boarding has no start-time clashes but
+ * a fixed number of kennels: a check-in day is open while some kennel is free
+ * that night, counted the way {@code occupancy} counts it. Whether the whole
+ * stay fits is only known once check-out is given, at booking.
+ */
+@Service
+public class AvailabilityService {
+
+  static final int MAX_RANGE_DAYS = 31;
+
+  private final SlotSchedule schedule;
+  private final SlotHolds holds;
+  private final Stations stations;
+  private final ServiceRules rules;
+  private final ReservationProps props;
+  private final ReservationRepo reservationRepo;
+  private final int slotMinutes;
+
+  public AvailabilityService(SlotSchedule schedule, SlotHolds holds, Stations stations, ServiceRules rules,
+      ReservationProps props, ReservationRepo reservationRepo,
+      @Value("${availability.slot-minutes:30}") int slotMinutes) {
+    this.schedule = schedule;
+    this.holds = holds;
+    this.stations = stations;
+    this.rules = rules;
+    this.props = props;
+    this.reservationRepo = reservationRepo;
+    this.slotMinutes = slotMinutes;
+  }
+
+  public ServiceAvailability openSlots(Long serviceId, LocalDate from, LocalDate to) {
+    // both ends count: from..from+30 is 31 days
+    long days = ChronoUnit.DAYS.between(from, to) + 1;
+    if (days < 1 || days > MAX_RANGE_DAYS) {
+      throw new InvalidBookingException("Availability range must be 1 to " + MAX_RANGE_DAYS + " days");
+    }
+    var rule = rules.forService(serviceId);
+    boolean blocking = !ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(rule.code());
+    int buffer = props.bufferMinutes();
+    List<Long> stationIds = stations.of(serviceId);
+    Set<LocalDate> full = Set.of();
+    if (blocking) {
+      // neighbours too: a buffer can reach across midnight
+      schedule.ensureLoaded(from.minusDays(1), to.plusDays(1));
+    } else {
+      full = fullNights(serviceId, from, to);
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    var open = new ArrayList<LocalDateTime>();
+    for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+      if (!rule.allowsDay(d.getDayOfWeek()) || full.contains(d)) {
+        continue;
+      }
+      for (int m = rule.startMinute(); m <= rule.endMinute(); m += slotMinutes) {
+        LocalDateTime t = d.atStartOfDay().plusMinutes(m);
+        if (t.isAfter(now) && (!blocking || isOpen(stationIds, t, buffer))) {
+          open.add(t);
+        }
+      }
+    }
+    return new ServiceAvailability(serviceId, slotMinutes, open);
+  }
+
+  /**
+   * Up to {@code limit} open start times on the requested day, closest to
+   * {@code requested} first and returned in time order. One pass over the
+   * service window against that day's bitmap.
+   */
+  public List<LocalDateTime> nearestFree(Long serviceId, LocalDateTime requested, int limit) {
+    var rule = rules.forService(serviceId);
+    LocalDate day = requested.toLocalDate();
+    if (limit <= 0 || !rule.allowsDay(day.getDayOfWeek())) {
+      return List.of();
+    }
+    boolean blocking = !ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(rule.code());
+    int buffer = props.bufferMinutes();
+    List<Long> stationIds = stations.of(serviceId);
+    if (blocking) {
+      schedule.ensureLoaded(day.minusDays(1), day.plusDays(1));
+    } else if (fullNights(serviceId, day, day).contains(day)) {
+      return List.of();
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    var free = new ArrayList<LocalDateTime>();
+    for (int m = rule.startMinute(); m <= rule.endMinute(); m += slotMinutes) {
+      LocalDateTime t = day.atStartOfDay().plusMinutes(m);
+      if (!t.equals(requested) && t.isAfter(now) && (!blocking || isOpen(stationIds, t, buffer))) {
+        free.add(t);
+      }
+    }
+    return free.stream()
+        .sorted(Comparator.comparingLong((LocalDateTime t) -> Math.abs(Duration.between(requested, t).toMinutes()))
+            .thenComparing(Comparator.naturalOrder()))
+        .limit(limit)
+        .sorted()
+        .toList();
+  }
+
+  // nights in [from, to] on which every kennel is taken
+  private Set<LocalDate> fullNights(Long serviceId, LocalDate from, LocalDate to) {
+    int capacity = stations.capacity(serviceId);
+    return reservationRepo.countNightlyStays(serviceId, from, to.plusDays(1)).stream()
+        .filter(n -> n.getBooked() >= capacity)
+        .map(ReservationRepo.NightCount::getNight)
+        .collect(Collectors.toSet());
+  }
+
+  private boolean isOpen(List<Long> stationIds, LocalDateTime t, int buffer) {
+    for (long s : stationIds) {
+      if (schedule.isFree(s, t, buffer) && !holds.clashes(s, t, buffer)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,199 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PipelineProps;
+import com.example.demo.dto.BookingTicket;
+import com.example.demo.dto.ReservationRequest;
+import com.example.demo.exception.BookingConflictException;
+import com.example.demo.model.BookingTicketRecord;
+import com.example.demo.repo.BookingTicketRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous booking mode: requests are queued per day shard and a single
+ * writer thread per shard applies them in order, so bookings for the same day
+ * never contend with each other in the database. Tickets live in the
+ * booking_ticket table, so any replica can answer a poll and a resolved ticket
+ * survives a restart. The queue itself is in memory: a job whose node stops
+ * before running it is reported FAILED once it has been pending for
+ * {@code pending-timeout-seconds}, and is skipped if it is picked up later.
+ * A booking commits in the same transaction that moves its ticket out of
+ * PENDING, so a ticket already expired as FAILED rolls the booking back and a
+ * client told to try again never ends up with two reservations.
+ *
+ * <p>Jobs are drained from the queue in batches but each runs in its own
+ * transaction: every ticket needs its own outcome, and one conflict must not
+ * roll back the other requests of the batch.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "reservation.pipeline", name = "enabled", havingValue = "true")
+public class BookingPipeline {
+
+  private final ReservationService reservations;
+  private final TransactionRetry retry;
+  private final PipelineProps props;
+  private final BookingTicketRepo tickets;
+  private final TransactionTemplate tx;
+
+  private static final String LOST = "Booking was not processed, please try again.";
+
+  private final List<Shard> shards = new ArrayList<>();
+
+  private record Job(UUID ticket, Instant createdAt, ReservationRequest req) {
+  }
+
+  // the ticket expired while its booking ran; thrown to roll that booking back
+  private static final class TicketExpired extends RuntimeException {
+    TicketExpired() {
+      super(null, null, false, false);
+    }
+  }
+
+  @PostConstruct
+  void start() {
+    for (int i = 0; i < props.shards(); i++) {
+      var shard = new Shard(i, new ArrayBlockingQueue<>(props.queueCapacity()));
+      shards.add(shard);
+      shard.start();
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    shards.forEach(Thread::interrupt);
+  }
+
+  public BookingTicket submit(ReservationRequest req) {
+    // reject out-of-window requests synchronously instead of via a ticket
+    reservations.validate(req);
+    var ticket = BookingTicket.pending(UUID.randomUUID());
+    tickets.save(BookingTicketRecord.builder()
+        .id(ticket.id())
+        .status(ticket.status())
+        .createdAt(ticket.updatedAt())
+        .updatedAt(ticket.updatedAt())
+        .build());
+    if (!shardFor(req).queue.offer(new Job(ticket.id(), ticket.updatedAt(), req))) {
+      tickets.deleteById(ticket.id());
+      throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+          "Booking queue is full, please try again.");
+    }
+    return ticket;
+  }
+
+  public Optional<BookingTicket> status(UUID id) {
+    var found = tickets.findById(id);
+    if (found.isPresent() && found.get().getStatus() == BookingTicket.Status.PENDING
+        && found.get().getCreatedAt().isBefore(pendingCutoff())
+        && expire(id) > 0) {
+      found = tickets.findById(id);
+    }
+    return found.map(BookingTicketRecord::toTicket);
+  }
+
+  private Shard shardFor(ReservationRequest req) {
+    int key = req.reservationTime().toLocalDate().hashCode();
+    return shards.get(Math.floorMod(key, shards.size()));
+  }
+
+  @Scheduled(fixedDelayString = "${reservation.pipeline.cleanup-millis:600000}")
+  public void evictExpired() {
+    Instant cutoff = Instant.now().minus(props.ticketTtlMinutes(), ChronoUnit.MINUTES);
+    int evicted = tickets.deleteResolvedBefore(cutoff, BookingTicket.Status.PENDING);
+    if (evicted > 0) {
+      log.debug("Evicted {} booking tickets", evicted);
+    }
+  }
+
+  private Instant pendingCutoff() {
+    return Instant.now().minusSeconds(props.pendingTimeoutSeconds());
+  }
+
+  private int expire(UUID id) {
+    return tickets.expire(id, pendingCutoff(), LOST, Instant.now(),
+        BookingTicket.Status.PENDING, BookingTicket.Status.FAILED);
+  }
+
+  private void apply(Job job) {
+    // a poller may already have been told this one failed
+    if (job.createdAt().isBefore(pendingCutoff())) {
+      expire(job.ticket());
+      return;
+    }
+    try {
+      retry.run("pipeline", () -> tx.execute(status -> {
+        var r = reservations.create(job.req());
+        if (tickets.resolve(job.ticket(), BookingTicket.Status.BOOKED, r.getId(), null, Instant.now(),
+            BookingTicket.Status.PENDING) == 0) {
+          throw new TicketExpired();
+        }
+        return r;
+      }));
+    } catch (TicketExpired ex) {
+      log.info("Booking ticket {} expired while it ran; booking rolled back", job.ticket());
+    } catch (BookingConflictException ex) {
+      resolve(job.ticket(), BookingTicket.Status.CONFLICT, ex.getMessage());
+    } catch (RuntimeException ex) {
+      log.warn("Queued booking {} failed", job.ticket(), ex);
+      resolve(job.ticket(), BookingTicket.Status.FAILED, "Booking could not be processed.");
+    }
+  }
+
+  private void resolve(UUID id, BookingTicket.Status status, String message) {
+    try {
+      tickets.resolve(id, status, null, message, Instant.now(), BookingTicket.Status.PENDING);
+    } catch (RuntimeException ex) {
+      log.error("Could not record outcome {} of booking ticket {}", status, id, ex);
+    }
+  }
+
+  private class Shard extends Thread {
+    private final BlockingQueue<Job> queue;
+
+    Shard(int n, BlockingQueue<Job> queue) {
+      super("booking-shard-" + n);
+      setDaemon(true);
+      this.queue = queue;
+    }
+
+    @Override
+    public void run() {
+      List<Job> batch = new ArrayList<>(props.batchSize());
+      while (!isInterrupted()) {
+        try {
+          Job first = queue.poll(1, TimeUnit.SECONDS);
+          if (first == null) {
+            continue;
+          }
+          batch.add(first);
+          queue.drainTo(batch, props.batchSize() - 1);
+          batch.forEach(BookingPipeline.this::apply);
+        } catch (InterruptedException ex) {
+          interrupt();
+        } finally {
+          batch.clear();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ReservationEvent;
+import com.example.demo.repo.ReservationRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheap version stamps for conditional GETs. Reads never touch the database:
+ * the reservation watermark mirrors reservation_watermark.version, which is
+ * bumped once after every transaction that commits a reservation change.
+ * It is re-read after every local bump and periodically to pick up other
+ * replicas' writes. SSE events are per node, so when the periodic read finds
+ * more bumps than this node made, local dashboards are told to resync.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DataWatermarks {
+
+  private final ReservationRepo reservationRepo;
+  private final ReservationBroadcaster broadcaster;
+
+  private volatile long reservations;
+  // watermark at the last periodic read, and local bumps made since then
+  private long lastRefreshed = -1;
+  private final AtomicLong localBumps = new AtomicLong();
+
+  public String reservationsEtag() {
+    return "\"r" + reservations + "\"";
+  }
+
+  @EventListener
+  public void onChange(ReservationEvent event) {
+    markChanged();
+  }
+
+  /**
+   * Reservation listings embed pet details, so pet writes call this directly.
+   * Inside a transaction it arranges a single bump for when it commits,
+   * however many rows it touched; a rollback bumps nothing.
+   */
+  public void markChanged() {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      bump();
+      return;
+    }
+    if (TransactionSynchronizationManager.hasResource(this)) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(DataWatermarks.this);
+        if (status == STATUS_COMMITTED) {
+          bump();
+        }
+      }
+    });
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    refreshReservations();
+  }
+
+  @Scheduled(fixedDelayString = "${reservation.watermark.refresh-millis:2000}",
+      initialDelayString = "${reservation.watermark.refresh-millis:2000}")
+  public synchronized void refreshReservations() {
+    long current = reservationRepo.currentWatermark();
+    long local = localBumps.getAndSet(0);
+    if (lastRefreshed >= 0 && current - lastRefreshed > local) {
+      broadcaster.resyncAll();
+    }
+    lastRefreshed = current;
+    reservations = current;
+  }
+
+  private void bump() {
+    try {
+      reservationRepo.bumpWatermark();
+      // counted after the bump lands, so a race costs a spare resync, never a missed one
+      localBumps.incrementAndGet();
+      reservations = reservationRepo.currentWatermark();
+    } catch (RuntimeException ex) {
+      // the change itself is committed; peers catch up on the next bump
+      log.warn("Could not bump the reservation watermark", ex);
+    }
+  }
+}
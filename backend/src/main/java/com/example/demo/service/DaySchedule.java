@@ -0,0 +1,64 @@
+package com.example.demo.service;
+
+/**
+ * One day of booking starts as a bitset with one bit per minute. Bit {@code m}
+ * is set when a slot-blocking booking starts at minute {@code m}; range
+ * questions are answered exactly by masking and testing whole 64-bit words.
+ */
+final class DaySchedule {
+
+  static final int MINUTES_PER_DAY = 24 * 60;
+
+  private final long[] words = new long[(MINUTES_PER_DAY + 63) >>> 6];
+
+  synchronized void set(int minuteOfDay) {
+    words[minuteOfDay >>> 6] |= 1L << minuteOfDay;
+  }
+
+  synchronized void clear(int minuteOfDay) {
+    words[minuteOfDay >>> 6] &= ~(1L << minuteOfDay);
+  }
+
+  /** Sets every bit that is set in {@code other}. */
+  void or(DaySchedule other) {
+    long[] bits;
+    synchronized (other) {
+      bits = other.words.clone();
+    }
+    orWords(bits);
+  }
+
+  private synchronized void orWords(long[] bits) {
+    for (int w = 0; w < words.length; w++) {
+      words[w] |= bits[w];
+    }
+  }
+
+  /** True if any booking starts in [fromMinute, toMinute]; bounds are clamped to the day. */
+  synchronized boolean anyBetween(int fromMinute, int toMinute) {
+    int a = Math.max(0, fromMinute);
+    int b = Math.min(MINUTES_PER_DAY - 1, toMinute);
+    if (a > b) {
+      return false;
+    }
+    int first = a >>> 6;
+    int last = b >>> 6;
+    for (int w = first; w <= last; w++) {
+      long bits = words[w];
+      if (w == first) {
+        bits &= -1L << a;
+      }
+      if (w == last) {
+        bits &= -1L >>> (63 - (b & 63));
+      }
+      if (bits != 0) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  int bytes() {
+    return words.length * Long.BYTES;
+  }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.service;
+
+import com.example.demo.config.IdempotencyProps;
+import com.example.demo.repo.IdempotencyRepo;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * Honors the Idempotency-Key header on public POSTs. The first request for
+ * a key claims it, runs, and stores its JSON response; later requests with
+ * the same key and body get that response back without re-running anything.
+ * Failed requests release their claim so the client can simply retry.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyStore {
+
+  public static final String HEADER = "Idempotency-Key";
+  static final int MAX_KEY_LENGTH = 100;
+
+  private final IdempotencyRepo repo;
+  private final ObjectMapper mapper;
+  private final IdempotencyProps props;
+
+  public <T> T execute(String key, String scope, Object request, Class<T> type, Supplier<T> action) {
+    if (key == null || key.isBlank()) {
+      return action.get();
+    }
+    if (key.length() > MAX_KEY_LENGTH) {
+      throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+          HEADER + " must be at most " + MAX_KEY_LENGTH + " characters");
+    }
+    String id = scope + ":" + key;
+    String hash = hash(request);
+
+    if (!claim(id, hash)) {
+      return replay(id, hash, type);
+    }
+    T result;
+    try {
+      result = action.get();
+    } catch (RuntimeException ex) {
+      repo.release(id);
+      throw ex;
+    }
+    repo.complete(id, toJson(result));
+    return result;
+  }
+
+  @Scheduled(fixedDelayString = "${idempotency.cleanup-millis:600000}")
+  public void evict() {
+    int expired = repo.deleteOlderThan(LocalDateTime.now().minusHours(props.ttlHours()));
+    int trimmed = repo.trimTo(props.maxEntries());
+    if (expired + trimmed > 0) {
+      log.debug("Evicted {} expired and {} surplus idempotency keys", expired, trimmed);
+    }
+  }
+
+  private boolean claim(String id, String hash) {
+    if (repo.claim(id, hash) == 1) {
+      return true;
+    }
+    // an expired entry or a claim abandoned by a crashed request may be taken over
+    LocalDateTime now = LocalDateTime.now();
+    return repo.deleteIfStale(id, now.minusHours(props.ttlHours()),
+        now.minusSeconds(props.inProgressTimeoutSeconds())) == 1
+        && repo.claim(id, hash) == 1;
+  }
+
+  private <T> T replay(String id, String hash, Class<T> type) {
+    var entry = repo.findById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.CONFLICT,
+        "A request with this " + HEADER + " is still in progress"));
+    if (!entry.getRequestHash().equals(hash)) {
+      throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY,
+          HEADER + " was already used for a different request");
+    }
+    if (entry.getResponse() == null) {
+      throw new ResponseStatusException(HttpStatus.CONFLICT,
+          "A request with this " + HEADER + " is still in progress");
+    }
+    try {
+      return mapper.readValue(entry.getResponse(), type);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Unreadable stored response for " + id, ex);
+    }
+  }
+
+  private String hash(Object request) {
+    try {
+      var digest = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(digest.digest(mapper.writeValueAsBytes(request)));
+    } catch (NoSuchAlgorithmException | JsonProcessingException ex) {
+      throw new IllegalStateException("Cannot fingerprint request", ex);
+    }
+  }
+
+  private String toJson(Object result) {
+    try {
+      return mapper.writeValueAsString(result);
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException("Cannot store response", ex);
+    }
+  }
+}
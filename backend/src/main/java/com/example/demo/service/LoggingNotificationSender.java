@@ -0,0 +1,24 @@
+package com.example.demo.service;
+
+import com.example.demo.model.NotificationChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/** Default sender for local runs and tests: writes each message to the log instead of a gateway. */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "notifications", name = "sender", havingValue = "log", matchIfMissing = true)
+public class LoggingNotificationSender implements NotificationSender {
+
+  @Override
+  public void send(NotificationChannel channel, String recipient, String body) {
+    log.info("[{}] to {}: {}", channel, mask(recipient), body);
+  }
+
+  // last four digits only; full numbers don't belong in INFO logs
+  static String mask(String recipient) {
+    String digits = recipient == null ? "" : recipient.replaceAll("[^0-9]", "");
+    return digits.length() <= 4 ? "***" : "***" + digits.substring(digits.length() - 4);
+  }
+}
@@ -0,0 +1,152 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NotificationProps;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationEvent;
+import com.example.demo.dto.WaitlistPromoted;
+import com.example.demo.model.NotificationKind;
+import com.example.demo.model.OutboxMessage;
+import com.example.demo.repo.OutboxRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Turns booking events into outbox rows. Listens synchronously and writes the
+ * rows just before the publishing transaction commits: the messages exist if
+ * and only if the change they announce commits. Events are gathered per
+ * transaction first, so a batch, series or series cancellation reaches each
+ * owner as one summary, and a waiter promoted into a slot gets only the
+ * promotion message, not a booking confirmation as well. Sending is left to
+ * {@link OutboxDispatcher}, off the request thread.
+ */
+@Component
+@RequiredArgsConstructor
+public class NotificationOutbox {
+
+  private final OutboxRepo outboxRepo;
+  private final NotificationProps props;
+
+  // one transaction's events, keyed in the synchronization manager by this bean
+  private static final class Pending {
+    private final List<ReservationEvent> reservations = new ArrayList<>();
+    private final List<WaitlistPromoted> promotions = new ArrayList<>();
+  }
+
+  private record Group(String phone, ReservationEvent.Type type) {
+  }
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onReservation(ReservationEvent event) {
+    pending().reservations.add(event);
+  }
+
+  @EventListener
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void onWaitlistPromoted(WaitlistPromoted event) {
+    pending().promotions.add(event);
+  }
+
+  private Pending pending() {
+    var bound = (Pending) TransactionSynchronizationManager.getResource(this);
+    if (bound != null) {
+      return bound;
+    }
+    var fresh = new Pending();
+    TransactionSynchronizationManager.bindResource(this, fresh);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        write(fresh.reservations, fresh.promotions);
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(NotificationOutbox.this);
+      }
+    });
+    return fresh;
+  }
+
+  private void write(List<ReservationEvent> reservations, List<WaitlistPromoted> promotions) {
+    Set<Long> promoted = new HashSet<>();
+    for (WaitlistPromoted p : promotions) {
+      promoted.add(p.reservationId());
+      enqueue(p.reservationId(), NotificationKind.WAITLIST_PROMOTED, p.ownerPhone(),
+          "Good news: a spot opened up. %s is now booked for %s at %s (reservation %d)."
+              .formatted(p.petName(), p.service(), p.time(), p.reservationId()));
+    }
+    Map<Group, List<ReservationDTO>> groups = new LinkedHashMap<>();
+    for (ReservationEvent e : reservations) {
+      if (e.type() == ReservationEvent.Type.CREATED && promoted.contains(e.reservation().id())) {
+        continue;
+      }
+      groups.computeIfAbsent(new Group(e.reservation().phone(), e.type()), g -> new ArrayList<>())
+          .add(e.reservation());
+    }
+    groups.forEach((g, rs) -> enqueue(rs.get(0).id(), kindOf(g.type()), g.phone(),
+        rs.size() == 1 ? single(g.type(), rs.get(0)) : summary(g.type(), rs)));
+  }
+
+  private static NotificationKind kindOf(ReservationEvent.Type type) {
+    return switch (type) {
+      case CREATED -> NotificationKind.BOOKED;
+      case CANCELED -> NotificationKind.CANCELED;
+      case COMPLETED -> NotificationKind.COMPLETED;
+    };
+  }
+
+  private static String single(ReservationEvent.Type type, ReservationDTO r) {
+    return switch (type) {
+      case CREATED -> "%s is booked for %s on %s at %s. Your reservation ID is %d."
+          .formatted(r.petName(), r.service(), r.date(), r.time(), r.id());
+      case CANCELED -> "Reservation %d for %s on %s at %s has been canceled."
+          .formatted(r.id(), r.petName(), r.date(), r.time());
+      case COMPLETED -> "%s is all done. Thank you for visiting Oreo Pet Bath!"
+          .formatted(r.petName());
+    };
+  }
+
+  // one message for a whole batch or series: count, pets and date span instead of every slot
+  private static String summary(ReservationEvent.Type type, List<ReservationDTO> rs) {
+    String pets = rs.stream().map(ReservationDTO::petName).distinct().collect(Collectors.joining(", "));
+    LocalDate first = rs.stream().map(ReservationDTO::date).min(Comparator.naturalOrder()).orElseThrow();
+    LocalDate last = rs.stream().map(ReservationDTO::date).max(Comparator.naturalOrder()).orElseThrow();
+    return switch (type) {
+      case CREATED -> "%d bookings are confirmed for %s between %s and %s. Your first reservation ID is %d."
+          .formatted(rs.size(), pets, first, last, rs.get(0).id());
+      case CANCELED -> "%d reservations for %s between %s and %s have been canceled."
+          .formatted(rs.size(), pets, first, last);
+      case COMPLETED -> "%s are all done. Thank you for visiting Oreo Pet Bath!"
+          .formatted(pets);
+    };
+  }
+
+  private void enqueue(Long reservationId, NotificationKind kind, String recipient, String body) {
+    if (recipient == null || recipient.isBlank()) {
+      return;
+    }
+    outboxRepo.save(OutboxMessage.builder()
+        .reservationId(reservationId)
+        .kind(kind)
+        .channel(props.channel())
+        .recipient(recipient)
+        .body(body)
+        .build());
+  }
+}
@@ -0,0 +1,13 @@
+package com.example.demo.service;
+
+import com.example.demo.model.NotificationChannel;
+
+/**
+ * Delivers one message to a customer. Implementations throw on failure; the
+ * outbox dispatcher retries with backoff. Delivery is at least once, so a
+ * message may occasionally arrive twice.
+ */
+public interface NotificationSender {
+
+  void send(NotificationChannel channel, String recipient, String body);
+}
@@ -0,0 +1,76 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NotificationProps;
+import com.example.demo.model.OutboxMessage;
+import com.example.demo.repo.OutboxRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Drains the notification outbox. Every node runs it: each poll claims due
+ * rows in batches (see {@link OutboxRepo#claimDue}), sends them outside any
+ * transaction, then marks them sent or schedules a retry with capped
+ * exponential backoff. Rows that keep failing are parked as FAILED.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+  private final OutboxRepo outboxRepo;
+  private final NotificationSender sender;
+  private final NotificationProps props;
+  private final MeterRegistry meters;
+
+  @Scheduled(fixedDelayString = "${notifications.poll-millis:1000}",
+      initialDelayString = "${notifications.poll-millis:1000}")
+  public void dispatch() {
+    List<OutboxMessage> batch;
+    do {
+      batch = outboxRepo.claimDue(props.batchSize(), props.leaseSeconds());
+      send(batch);
+    } while (batch.size() == props.batchSize());
+  }
+
+  void send(List<OutboxMessage> batch) {
+    var sent = new ArrayList<Long>(batch.size());
+    for (OutboxMessage m : batch) {
+      try {
+        sender.send(m.getChannel(), m.getRecipient(), m.getBody());
+        sent.add(m.getId());
+      } catch (RuntimeException ex) {
+        failed(m, ex);
+      }
+    }
+    if (!sent.isEmpty()) {
+      outboxRepo.markSent(sent);
+      meters.counter("notifications.sent").increment(sent.size());
+    }
+  }
+
+  private void failed(OutboxMessage m, RuntimeException ex) {
+    String error = String.valueOf(ex.getMessage());
+    // attempts already counts the claim that just failed
+    if (m.getAttempts() >= props.maxAttempts()) {
+      outboxRepo.markFailed(m.getId(), error);
+      meters.counter("notifications.failed").increment();
+      log.warn("Giving up on outbox message {} after {} attempts: {}", m.getId(), m.getAttempts(), error);
+      return;
+    }
+    outboxRepo.retryLater(m.getId(), backoffSeconds(m.getAttempts()), error);
+    meters.counter("notifications.retries").increment();
+  }
+
+  // capped exponential backoff with "equal jitter", so a retry never comes sooner than half the step
+  long backoffSeconds(int attempt) {
+    long cap = Math.min(props.maxBackoffSeconds(), props.baseBackoffSeconds() << Math.min(attempt - 1, 20));
+    return cap / 2 + ThreadLocalRandom.current().nextLong(cap / 2 + 1);
+  }
+}
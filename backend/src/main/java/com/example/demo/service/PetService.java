@@ -3,17 +3,90 @@ package com.example.demo.service;
 import com.example.demo.model.Pet;
 import com.example.demo.repo.PetRepo;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
 import java.util.List;
 
 @Service
 @RequiredArgsConstructor
 public class PetService {
+  private static final String UNIQUE_VIOLATION = "23505";
+
   private final PetRepo repo;
+  private final DataWatermarks watermarks;
 
+  // flushed here so a rename onto another pet's (phone, name) key fails as a 409, not at commit
   public Pet save(Pet pet) {
-    return repo.save(pet);
+    try {
+      Pet saved = repo.saveAndFlush(pet);
+      watermarks.markChanged();
+      return saved;
+    } catch (DataIntegrityViolationException ex) {
+      if (isUniqueViolation(ex)) {
+        throw new ResponseStatusException(HttpStatus.CONFLICT, "This owner already has a pet with that name");
+      }
+      throw ex;
+    }
+  }
+
+  /**
+   * Returns the pet already on file for this owner phone and name, or stores a
+   * new one. Callers are anonymous, so a row on file only has its empty fields
+   * filled in; what the owner entered before is never overwritten. A returning
+   * customer costs one indexed lookup; a concurrent first booking of the same
+   * pet converges on a single row.
+   */
+  @Transactional
+  public Pet upsert(Pet pet) {
+    pet.setId(null);
+    pet.stampKeys();
+    var existing = repo.findByOwnerPhoneKeyAndNameKey(pet.getOwnerPhoneKey(), pet.getNameKey());
+    if (existing.isEmpty()) {
+      repo.insertIfAbsent(pet);
+      // ours, or the row a concurrent request inserted first
+      return repo.findByOwnerPhoneKeyAndNameKey(pet.getOwnerPhoneKey(), pet.getNameKey()).orElseThrow();
+    }
+    var current = existing.get();
+    boolean filled = false;
+    if (current.getBreed() == null && pet.getBreed() != null) {
+      current.setBreed(pet.getBreed());
+      filled = true;
+    }
+    if (current.getAge() == null && pet.getAge() != null) {
+      current.setAge(pet.getAge());
+      filled = true;
+    }
+    if (filled) {
+      watermarks.markChanged();
+    }
+    return current;
+  }
+
+  /**
+   * What an anonymous caller gets back for a pet they submitted: the id of the
+   * row on file and only the details they sent themselves.
+   */
+  public static Pet asSent(Pet sent, Long id) {
+    return Pet.builder()
+        .id(id)
+        .name(sent.getName())
+        .species(sent.getSpecies())
+        .breed(sent.getBreed())
+        .age(sent.getAge())
+        .ownerName(sent.getOwnerName())
+        .ownerPhone(sent.getOwnerPhone())
+        .build();
+  }
+
+  private static boolean isUniqueViolation(DataIntegrityViolationException ex) {
+    return NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLException sql
+        && UNIQUE_VIOLATION.equals(sql.getSQLState());
   }
 
   public List<Pet> findAll() {
@@ -26,5 +99,6 @@ public class PetService {
 
   public void delete(Long id) {
     repo.deleteById(id);
+    watermarks.markChanged();
   }
 }
\ No newline at end of file
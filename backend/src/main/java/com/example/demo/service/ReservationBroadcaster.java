@@ -0,0 +1,155 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ReservationEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Fans committed reservation events out to SSE subscribers. Publishing only
+ * enqueues; a small sender pool drains each subscriber's bounded buffer, so a
+ * slow dashboard never stalls the booking thread. When a buffer overflows the
+ * oldest events are dropped and the subscriber is told to resync. Writes on
+ * other replicas arrive as a resync too, see {@link DataWatermarks}.
+ */
+@Slf4j
+@Component
+public class ReservationBroadcaster {
+
+  static final String RESYNC_EVENT = "resync";
+
+  private final int bufferSize;
+  private final long timeoutMillis;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ExecutorService sender = Executors.newFixedThreadPool(2, r -> {
+    var t = new Thread(r, "reservation-sse");
+    t.setDaemon(true);
+    return t;
+  });
+
+  public ReservationBroadcaster(
+      @Value("${reservation.events.buffer-size:64}") int bufferSize,
+      @Value("${reservation.events.timeout-millis:1800000}") long timeoutMillis) {
+    this.bufferSize = bufferSize;
+    this.timeoutMillis = timeoutMillis;
+  }
+
+  public SseEmitter subscribe() {
+    var emitter = new SseEmitter(timeoutMillis);
+    var sub = new Subscriber(emitter);
+    subscribers.add(sub);
+    emitter.onCompletion(() -> subscribers.remove(sub));
+    emitter.onTimeout(() -> subscribers.remove(sub));
+    emitter.onError(e -> subscribers.remove(sub));
+    return emitter;
+  }
+
+  public int subscriberCount() {
+    return subscribers.size();
+  }
+
+  @TransactionalEventListener
+  public void onCommitted(ReservationEvent event) {
+    for (Subscriber sub : subscribers) {
+      sub.offer(event);
+    }
+  }
+
+  /** Tells every subscriber to re-read the change feed, for changes this node did not see. */
+  public void resyncAll() {
+    for (Subscriber sub : subscribers) {
+      sub.requestResync();
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    sender.shutdownNow();
+    subscribers.forEach(s -> s.emitter.complete());
+  }
+
+  private class Subscriber {
+    private final SseEmitter emitter;
+    private final ArrayDeque<ReservationEvent> buffer = new ArrayDeque<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private boolean resync;
+
+    Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    void offer(ReservationEvent event) {
+      synchronized (this) {
+        if (buffer.size() >= bufferSize) {
+          buffer.pollFirst();
+          resync = true;
+        }
+        buffer.addLast(event);
+      }
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    void requestResync() {
+      synchronized (this) {
+        resync = true;
+      }
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      try {
+        while (true) {
+          ReservationEvent next;
+          boolean sendResync;
+          synchronized (this) {
+            next = buffer.pollFirst();
+            sendResync = resync;
+            resync = false;
+          }
+          if (sendResync) {
+            emitter.send(SseEmitter.event().name(RESYNC_EVENT).data(Map.of()));
+          }
+          if (next == null) {
+            break;
+          }
+          emitter.send(SseEmitter.event()
+              .name(next.type().name().toLowerCase())
+              .id(String.valueOf(next.reservation().id()))
+              .data(next.reservation()));
+        }
+      } catch (IOException | IllegalStateException ex) {
+        log.debug("Dropping SSE subscriber: {}", ex.getMessage());
+        subscribers.remove(this);
+        emitter.completeWithError(ex);
+        return;
+      } finally {
+        draining.set(false);
+      }
+      // an event or resync may have arrived between the last poll and clearing the flag
+      synchronized (this) {
+        if (buffer.isEmpty() && !resync) {
+          return;
+        }
+      }
+      if (draining.compareAndSet(false, true)) {
+        sender.execute(this::drain);
+      }
+    }
+  }
+}
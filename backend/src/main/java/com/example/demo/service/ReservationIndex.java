@@ -0,0 +1,116 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StationBooking;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.repo.ReservationRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-process index of BOOKED, slot-blocking reservation times keyed by
+ * station and day. Lets {@link ReservationService} reject clashing requests
+ * without a DB round trip.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationIndex {
+
+  static final String NO_CONFLICT_SERVICE = "BOARD";
+
+  private record Key(long station, LocalDate day) {
+  }
+
+  private final ReservationRepo reservationRepo;
+
+  // (station, day) -> (reservation time -> number of bookings at that exact time)
+  private final Map<Key, NavigableMap<LocalDateTime, Integer>> days = new HashMap<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    var from = LocalDate.now().minusDays(1).atStartOfDay();
+    var bookings = reservationRepo.findStationBookingsFrom(from, ReservationStatus.BOOKED);
+    reload(bookings);
+    log.info("Reservation index warmed with {} bookings", bookings.size());
+  }
+
+  public synchronized void reload(List<StationBooking> bookings) {
+    days.clear();
+    bookings.forEach(b -> add(b.stationId(), b.time()));
+  }
+
+  /**
+   * Drops days that can no longer clash with a new booking. Yesterday stays,
+   * as at warm-up, because a buffer can reach back across midnight.
+   */
+  @Scheduled(cron = "${reservation.index.evict-cron:0 5 0 * * *}")
+  public void evictPastDays() {
+    int evicted = evictBefore(LocalDate.now().minusDays(1));
+    if (evicted > 0) {
+      log.debug("Evicted {} past station days from the reservation index", evicted);
+    }
+  }
+
+  synchronized int evictBefore(LocalDate cutoff) {
+    int before = days.size();
+    days.keySet().removeIf(k -> k.day().isBefore(cutoff));
+    return before - days.size();
+  }
+
+  /** True if another booking on {@code station} lies within {@code bufferMinutes} of {@code time}. */
+  public synchronized boolean clashes(long station, LocalDateTime time, int bufferMinutes) {
+    LocalDateTime start = time.minusMinutes(bufferMinutes);
+    LocalDateTime end = time.plusMinutes(bufferMinutes);
+    for (LocalDate d = start.toLocalDate(); !d.isAfter(end.toLocalDate()); d = d.plusDays(1)) {
+      var day = days.get(new Key(station, d));
+      if (day != null && !day.subMap(start, true, end, true).isEmpty()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Atomically checks the station for a clash and records the booking if
+   * there is none. Returns false when the station is already taken.
+   */
+  public synchronized boolean tryReserve(long station, LocalDateTime time, int bufferMinutes) {
+    if (clashes(station, time, bufferMinutes)) {
+      return false;
+    }
+    add(station, time);
+    return true;
+  }
+
+  public synchronized void release(long station, LocalDateTime time) {
+    var key = new Key(station, time.toLocalDate());
+    var day = days.get(key);
+    if (day == null) {
+      return;
+    }
+    day.computeIfPresent(time, (t, n) -> n > 1 ? n - 1 : null);
+    if (day.isEmpty()) {
+      days.remove(key);
+    }
+  }
+
+  private void add(Long station, LocalDateTime time) {
+    if (station == null) {
+      return;
+    }
+    days.computeIfAbsent(new Key(station, time.toLocalDate()), k -> new TreeMap<>())
+        .merge(time, 1, Integer::sum);
+  }
+}
@@ -1,68 +1,549 @@
 package com.example.demo.service;
 
 import com.example.demo.config.ReservationProps;
+import com.example.demo.dto.ReservationChanges;
+import com.example.demo.dto.ReservationCursor;
+import com.example.demo.dto.ReservationEvent;
+import com.example.demo.dto.PetReservationRequest;
+import com.example.demo.dto.ReservationFilter;
+import com.example.demo.dto.ReservationPage;
 import com.example.demo.dto.ReservationRequest;
+import com.example.demo.dto.SeriesRequest;
+import com.example.demo.dto.ServiceOccupancy;
+import com.example.demo.dto.StationBooking;
+import com.example.demo.dto.WaitlistPromoted;
+import com.example.demo.exception.BatchBookingException;
 import com.example.demo.exception.BookingConflictException;
+import com.example.demo.exception.InvalidBookingException;
 import com.example.demo.model.*;
 import com.example.demo.repo.*;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import jakarta.persistence.EntityNotFoundException;
 
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 @RequiredArgsConstructor
 public class ReservationService {
 
+  // Postgres SQLSTATE raised by the reservation_station_no_overlap exclusion constraint
+  private static final String EXCLUSION_VIOLATION = "23P01";
+  public static final int MAX_PAGE_SIZE = 500;
+  public static final int MAX_BATCH_SIZE = 20;
+  public static final int MAX_SERIES_SIZE = 52;
+  public static final int MAX_STAY_NIGHTS = 30;
+
   private final ReservationRepo reservationRepo;
   private final PetRepo petRepo;
+  private final PetService petService;
   private final ServiceOfferingRepo serviceRepo;
   private final ReservationProps props;
+  private final ReservationIndex index;
+  private final SlotLocks slotLocks;
+  private final ApplicationEventPublisher events;
+  private final ServiceRules rules;
+  private final SlotSchedule schedule;
+  private final ReservationBatchInserter batchInserter;
+  private final ReservationSeriesRepo seriesRepo;
+  private final SlotHolds holds;
+  private final Stations stations;
+  private final WaitlistRepo waitlistRepo;
+
+  /**
+   * In-memory window check; callers run it before entering {@link #create}
+   * so invalid requests never open a transaction or touch the DB.
+   */
+  public void validate(ReservationRequest req) {
+    rules.check(req.serviceId(), req.reservationTime());
+    checkStay(req.serviceId(), req.reservationTime(), req.checkOut());
+  }
+
+  public void validate(PetReservationRequest req) {
+    rules.check(req.serviceId(), req.reservationTime());
+    checkStay(req.serviceId(), req.reservationTime(), req.checkOut());
+  }
+
+  // boarding is sold by the night, so it needs a check-out date and nothing else takes one
+  private void checkStay(Long serviceId, LocalDateTime checkIn, LocalDate checkOut) {
+    boolean boarding = ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(rules.forService(serviceId).code());
+    if (!boarding) {
+      if (checkOut != null) {
+        throw new InvalidBookingException("Only boarding takes a check-out date");
+      }
+      return;
+    }
+    if (checkOut == null) {
+      throw new InvalidBookingException("Check-out date is required for boarding");
+    }
+    long nights = ChronoUnit.DAYS.between(checkIn.toLocalDate(), checkOut);
+    if (nights < 1 || nights > MAX_STAY_NIGHTS) {
+      throw new InvalidBookingException("A stay must last 1 to " + MAX_STAY_NIGHTS + " nights");
+    }
+  }
 
-  @Transactional(isolation = Isolation.SERIALIZABLE)
+  // Overlap-freedom per station is enforced by the reservation_station_no_overlap
+  // exclusion constraint, so unrelated bookings no longer serialize on each other
+  @Transactional(isolation = Isolation.READ_COMMITTED)
   public Reservation create(ReservationRequest req) {
+    validate(req);
     var pet = petRepo.findById(req.petId()).orElseThrow();
     var service = serviceRepo.findById(req.serviceId()).orElseThrow();
-    String noConflictService = "BOARD";
+    return book(service, req.reservationTime(), req.checkOut(), req.notes(), req.holdToken(), () -> pet);
+  }
+
+  /**
+   * Resolves or stores the pet and books it in one transaction. The slot is
+   * claimed before the pet row is written, so a conflict leaves no orphan pet behind.
+   */
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public Reservation createWithPet(PetReservationRequest req) {
+    validate(req);
+    var service = serviceRepo.findById(req.serviceId()).orElseThrow();
+    return book(service, req.reservationTime(), req.checkOut(), req.notes(), req.holdToken(),
+        () -> petService.upsert(req.pet()));
+  }
+
+  /** Size and window checks for a batch, reported per item. */
+  public void validateBatch(List<ReservationRequest> reqs) {
+    if (reqs == null || reqs.isEmpty() || reqs.size() > MAX_BATCH_SIZE) {
+      throw new InvalidBookingException("A batch must hold 1 to " + MAX_BATCH_SIZE + " reservations");
+    }
+    checkWindows(reqs);
+  }
+
+  private void checkWindows(List<ReservationRequest> reqs) {
+    var errors = new ArrayList<BatchBookingException.ItemError>();
+    for (int i = 0; i < reqs.size(); i++) {
+      try {
+        validate(reqs.get(i));
+      } catch (InvalidBookingException ex) {
+        errors.add(new BatchBookingException.ItemError(i, ex.getMessage()));
+      }
+    }
+    if (!errors.isEmpty()) {
+      throw new BatchBookingException("Some reservations are invalid", false, errors);
+    }
+  }
+
+  /**
+   * Books every request or none. Items are given stations against each other
+   * and, with one range query, against existing bookings, and every item
+   * left without a station is reported at once. Rows go in as a single JDBC batch.
+   */
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public List<Reservation> createBatch(List<ReservationRequest> reqs) {
+    validateBatch(reqs);
+    return insertAll(reqs, null);
+  }
+
+  /**
+   * Expands the series rule and books every occurrence or none, through the
+   * same single-query conflict check and JDBC batch as {@link #createBatch}.
+   */
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public List<Reservation> createSeries(SeriesRequest req) {
+    List<ReservationRequest> occurrences = req.occurrences(MAX_SERIES_SIZE).stream()
+        .map(t -> new ReservationRequest(req.petId(), req.serviceId(), t, req.notes()))
+        .toList();
+    checkWindows(occurrences);
+    var pet = petRepo.findById(req.petId())
+        .orElseThrow(() -> new InvalidBookingException("Unknown pet " + req.petId()));
+    var series = seriesRepo.save(ReservationSeries.builder()
+        .petId(pet.getId())
+        .serviceId(req.serviceId())
+        .ownerPhone(pet.getOwnerPhone())
+        .frequency(req.frequency())
+        .firstTime(req.firstTime())
+        .occurrences(occurrences.size())
+        .notes(req.notes())
+        .build());
+    return insertAll(occurrences, series.getId());
+  }
+
+  /**
+   * Cancels every upcoming BOOKED occurrence of a series with one UPDATE.
+   * Past and already-finished occurrences are left as they are.
+   */
+  @Transactional
+  public int cancelSeries(long seriesId, String phone) {
+    var series = seriesRepo.findById(seriesId)
+        .orElseThrow(() -> new EntityNotFoundException("Reservation series " + seriesId));
+    if (!Pet.samePhone(series.getOwnerPhone(), phone))
+      throw new IllegalArgumentException("Phone number does not match");
+
+    List<Long> canceled = reservationRepo.cancelUpcomingInSeries(seriesId, LocalDateTime.now());
+    if (canceled.isEmpty()) {
+      return 0;
+    }
+    // exactly the rows the UPDATE flipped, already CANCELED
+    for (Reservation r : reservationRepo.findByIdIn(canceled)) {
+      releaseSlot(r);
+      events.publishEvent(ReservationEvent.of(ReservationEvent.Type.CANCELED, r));
+    }
+    return canceled.size();
+  }
+
+  private List<Reservation> insertAll(List<ReservationRequest> reqs, Long seriesId) {
+    Map<Long, Pet> pets = petRepo.findAllById(reqs.stream().map(ReservationRequest::petId).toList())
+        .stream().collect(Collectors.toMap(Pet::getId, p -> p));
+    Map<Long, ServiceOffering> services = serviceRepo.findAllById(reqs.stream().map(ReservationRequest::serviceId).toList())
+        .stream().collect(Collectors.toMap(ServiceOffering::getId, o -> o));
+
+    var errors = new ArrayList<BatchBookingException.ItemError>();
+    for (int i = 0; i < reqs.size(); i++) {
+      if (!pets.containsKey(reqs.get(i).petId())) {
+        errors.add(new BatchBookingException.ItemError(i, "Unknown pet " + reqs.get(i).petId()));
+      } else if (!services.containsKey(reqs.get(i).serviceId())) {
+        errors.add(new BatchBookingException.ItemError(i, "Unknown service " + reqs.get(i).serviceId()));
+      } else if (ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(services.get(reqs.get(i).serviceId()).getCode())) {
+        // kennels are claimed night by night in book(); a batch has no path for that
+        errors.add(new BatchBookingException.ItemError(i, "Boarding stays must be booked on their own"));
+      }
+    }
+    if (!errors.isEmpty()) {
+      throw new BatchBookingException("Some reservations are invalid", false, errors);
+    }
+
+    int buffer = props.bufferMinutes();
+    List<Integer> blocking = IntStream.range(0, reqs.size())
+        .filter(i -> !ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(services.get(reqs.get(i).serviceId()).getCode()))
+        .boxed()
+        .sorted(Comparator.comparing(i -> reqs.get(i).reservationTime()))
+        .toList();
+    var assigned = new HashMap<Integer, Long>();
+    if (!blocking.isEmpty()) {
+      Map<Long, List<LocalDateTime>> timesByService = blocking.stream()
+          .collect(Collectors.groupingBy(i -> reqs.get(i).serviceId(),
+              Collectors.mapping(i -> reqs.get(i).reservationTime(), Collectors.toList())));
+      slotLocks.lockAll(timesByService, buffer);
+      assignStations(reqs, blocking, buffer, assigned);
+      for (int i : blocking) {
+        long station = assigned.get(i);
+        LocalDateTime t = reqs.get(i).reservationTime();
+        // a miss means a booking on this node is still in flight
+        if (!index.tryReserve(station, t, buffer)) {
+          throw conflict(null, t);
+        }
+        afterCompletion(false, () -> index.release(station, t));
+      }
+    }
+
+    var rows = new ArrayList<Reservation>(reqs.size());
+    for (int i = 0; i < reqs.size(); i++) {
+      var req = reqs.get(i);
+      var pet = pets.get(req.petId());
+      var service = services.get(req.serviceId());
+      rows.add(Reservation.builder()
+          .pet(pet)
+          .service(service)
+          .reservationTime(req.reservationTime())
+          .ownerPhone(pet.getOwnerPhone())
+          .status(ReservationStatus.BOOKED)
+          .blocksSlot(!ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(service.getCode()))
+          .stationId(assigned.get(i))
+          .notes(req.notes())
+          .seriesId(seriesId)
+          .build());
+    }
+    List<Long> ids;
+    try {
+      ids = batchInserter.insert(rows);
+    } catch (DataIntegrityViolationException ex) {
+      if (isOverlapViolation(ex)) {
+        throw conflict(null, null);
+      }
+      throw ex;
+    }
+
+    Map<Long, Reservation> byId = reservationRepo.findAllById(ids).stream()
+        .collect(Collectors.toMap(Reservation::getId, r -> r));
+    List<Reservation> saved = ids.stream().map(byId::get).toList();
+    for (Reservation r : saved) {
+      if (r.getStationId() != null) {
+        long station = r.getStationId();
+        LocalDateTime t = r.getReservationTime();
+        afterCompletion(true, () -> schedule.book(station, t));
+      }
+      events.publishEvent(ReservationEvent.of(ReservationEvent.Type.CREATED, r));
+    }
+    return saved;
+  }
+
+  /**
+   * Gives each blocking item, in time order, the lowest station of its service
+   * that has no existing booking, no earlier item of this batch and no live
+   * hold within the buffer. Existing bookings come from one range query.
+   */
+  private void assignStations(List<ReservationRequest> reqs, List<Integer> items, int buffer,
+      Map<Integer, Long> assigned) {
+    List<StationBooking> existing = reservationRepo.findStationBookingsBetween(
+        reqs.get(items.get(0)).reservationTime().minusMinutes(buffer),
+        reqs.get(items.get(items.size() - 1)).reservationTime().plusMinutes(buffer + 1L),
+        ReservationStatus.BOOKED);
+    Map<Long, List<LocalDateTime>> booked = existing.stream()
+        .collect(Collectors.groupingBy(StationBooking::stationId,
+            Collectors.mapping(StationBooking::time, Collectors.toList())));
+    // station -> batch items already placed there, in time order
+    var placed = new HashMap<Long, List<Integer>>();
+
+    var errors = new ArrayList<BatchBookingException.ItemError>();
+    for (int i : items) {
+      LocalDateTime t = reqs.get(i).reservationTime();
+      String reason = null;
+      Long station = null;
+      for (Long s : stations.of(reqs.get(i).serviceId())) {
+        String busy = busyReason(s, t, buffer, reqs, booked.getOrDefault(s, List.of()), placed.getOrDefault(s, List.of()));
+        if (busy == null) {
+          station = s;
+          break;
+        }
+        if (reason == null) {
+          // report why the first station is taken; for a single-station service that is the whole story
+          reason = busy;
+        }
+      }
+      if (station == null) {
+        errors.add(new BatchBookingException.ItemError(i,
+            reason != null ? reason : "No station is configured for this service"));
+      } else {
+        assigned.put(i, station);
+        placed.computeIfAbsent(station, s -> new ArrayList<>()).add(i);
+      }
+    }
+    if (!errors.isEmpty()) {
+      errors.sort(Comparator.comparingInt(BatchBookingException.ItemError::index));
+      throw new BatchBookingException("Some reservations overlap existing bookings", true, errors);
+    }
+  }
+
+  // null when the station is free at t, otherwise why it is not
+  private String busyReason(long station, LocalDateTime t, int buffer, List<ReservationRequest> reqs,
+      List<LocalDateTime> booked, List<Integer> placed) {
+    if (!placed.isEmpty()) {
+      int last = placed.get(placed.size() - 1);
+      if (!t.isAfter(reqs.get(last).reservationTime().plusMinutes(buffer))) {
+        return "Overlaps item " + last + " of this batch";
+      }
+    }
+    int at = Collections.binarySearch(booked, t.minusMinutes(buffer));
+    int first = at >= 0 ? at : -at - 1;
+    if (first < booked.size() && !booked.get(first).isAfter(t.plusMinutes(buffer))) {
+      return "Overlaps an existing reservation at " + booked.get(first);
+    }
+    if (holds.clashes(station, t, buffer)) {
+      return "Currently held by another customer";
+    }
+    return null;
+  }
 
-    LocalDateTime requested = req.reservationTime();
-    boolean isBoarding = noConflictService.equalsIgnoreCase(service.getCode());
+  private Reservation book(ServiceOffering service, LocalDateTime requested, LocalDate checkOut, String notes,
+      String holdToken, Supplier<Pet> petSource) {
+    boolean isBoarding = ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(service.getCode());
+    boolean held = holds.isHeld(holdToken, service.getId(), requested);
+    int buffer = props.bufferMinutes();
 
-    if (!isBoarding) {
-      LocalDateTime start = requested.minusMinutes(props.bufferMinutes());
-      LocalDateTime end = requested.plusMinutes(props.bufferMinutes());
+    Long station;
+    if (isBoarding) {
+      station = claimKennel(service.getId(), requested.toLocalDate(), checkOut);
+    } else {
+      // a live hold already fenced its station off from everyone else on this node
+      station = held ? holds.stationOf(holdToken) : null;
+      if (station == null) {
+        station = claimStation(service.getId(), requested, buffer);
+      } else if (!index.tryReserve(station, requested, buffer)) {
+        throw conflict(service.getId(), requested);
+      }
+      long claimed = station;
+      afterCompletion(false, () -> index.release(claimed, requested));
+    }
+    if (held) {
+      afterCompletion(true, () -> holds.release(holdToken));
+    }
+
+    try {
+      var pet = petSource.get();
+      var saved = reservationRepo.saveAndFlush(
+          Reservation.builder()
+              .pet(pet)
+              .service(service)
+              .reservationTime(requested)
+              .checkOut(isBoarding ? checkOut : null)
+              .ownerPhone(pet.getOwnerPhone())
+              .status(ReservationStatus.BOOKED)
+              .blocksSlot(!isBoarding)
+              .stationId(station)
+              .notes(notes)
+              .build());
+      if (!isBoarding) {
+        long booked = station;
+        afterCompletion(true, () -> schedule.book(booked, requested));
+      }
+      events.publishEvent(ReservationEvent.of(ReservationEvent.Type.CREATED, saved));
+      return saved;
+    } catch (DataIntegrityViolationException ex) {
+      if (isOverlapViolation(ex)) {
+        throw isBoarding ? kennelsFull() : conflict(service.getId(), requested);
+      }
+      throw ex;
+    }
+  }
 
-      // Use pessimistic locking to prevent concurrent bookings
-      boolean clash = reservationRepo
-          .existsByReservationTimeBetweenAndStatusAndService_CodeNot(
-              start, end, ReservationStatus.BOOKED, noConflictService);
+  /**
+   * Picks the lowest station of the service that is free at {@code requested}
+   * and records it in the index; the exclusion constraint has the final say.
+   */
+  private long claimStation(Long serviceId, LocalDateTime requested, int buffer) {
+    List<Long> all = stations.of(serviceId);
+    // Fast path: skip stations this node knows are booked or held, without touching the DB
+    List<Long> candidates = all.stream()
+        .filter(s -> !index.clashes(s, requested, buffer) && !holds.clashes(s, requested, buffer))
+        .toList();
+    if (candidates.isEmpty()) {
+      throw conflict(serviceId, requested);
+    }
+    // Serialize with other nodes booking this service near this time; released on commit
+    slotLocks.lock(serviceId, requested, buffer);
+    var busy = new HashSet<>(reservationRepo.findBusyStations(serviceId,
+        requested.minusMinutes(buffer), requested.plusMinutes(buffer), ReservationStatus.BOOKED));
+    busy.retainAll(all);
+    // capacity check: every station already has a booking within the buffer
+    if (busy.size() >= all.size()) {
+      throw conflict(serviceId, requested);
+    }
+    for (long s : candidates) {
+      if (!busy.contains(s) && index.tryReserve(s, requested, buffer)) {
+        return s;
+      }
+    }
+    throw conflict(serviceId, requested);
+  }
 
-      if (clash) {
-        throw new BookingConflictException(
-            "Another reservation is already within the requested time.");
+  /**
+   * Picks the lowest kennel with no stay overlapping [checkIn, checkOut). The
+   * per-night locks serialize stays that share a night, so the count is exact;
+   * the kennel exclusion constraint still has the final say.
+   */
+  private long claimKennel(Long serviceId, LocalDate checkIn, LocalDate checkOut) {
+    List<Long> kennels = stations.of(serviceId);
+    if (kennels.isEmpty()) {
+      throw kennelsFull();
+    }
+    slotLocks.lockNights(serviceId, checkIn, checkOut);
+    var busy = new HashSet<>(reservationRepo.findBusyKennels(serviceId, checkIn, checkOut));
+    for (long k : kennels) {
+      if (!busy.contains(k)) {
+        return k;
       }
     }
+    throw kennelsFull();
+  }
 
-    return reservationRepo.save(
-        Reservation.builder()
-            .pet(pet)
-            .service(service)
-            .reservationTime(requested)
-            .ownerPhone(pet.getOwnerPhone())
-            .status(ReservationStatus.BOOKED)
-            .notes(req.notes())
-            .build());
+  /**
+   * Kennels taken and free for each night of {@code month}, counted in one
+   * query. Defaults to boarding when no service is given.
+   */
+  @Transactional(readOnly = true)
+  public ServiceOccupancy occupancy(Long serviceId, YearMonth month) {
+    Long service = serviceId;
+    if (service == null) {
+      var boarding = rules.forCode(ReservationIndex.NO_CONFLICT_SERVICE);
+      if (boarding == null) {
+        throw new EntityNotFoundException("Service " + ReservationIndex.NO_CONFLICT_SERVICE);
+      }
+      service = boarding.serviceId();
+    }
+    int capacity = stations.capacity(service);
+    List<ServiceOccupancy.Night> nights = reservationRepo.countNightlyStays(
+            service, month.atDay(1), month.plusMonths(1).atDay(1)).stream()
+        .map(n -> new ServiceOccupancy.Night(n.getNight(), n.getBooked(),
+            Math.max(0, capacity - n.getBooked())))
+        .toList();
+    return new ServiceOccupancy(service, capacity, nights);
   }
 
   public List<Reservation> findAll() {
     return reservationRepo.findAll();
   }
 
+  /**
+   * Filtered listing pushed down to SQL, paged by keyset on (reservationTime, id)
+   * so each call costs one page regardless of how much history there is.
+   */
+  public ReservationPage<Reservation> search(ReservationFilter filter, String cursor, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    Specification<Reservation> spec = ReservationSpecs.matching(filter);
+    if (cursor != null && !cursor.isBlank()) {
+      spec = spec.and(ReservationSpecs.after(ReservationCursor.decode(cursor)));
+    }
+    // fetch one extra row to learn whether another page exists
+    List<Reservation> rows = reservationRepo.findBy(spec,
+        q -> q.sortBy(ReservationSpecs.KEYSET_ORDER)
+            .limit(size + 1)
+            .project("pet", "service")
+            .all());
+    if (rows.size() <= size) {
+      return new ReservationPage<>(rows, null);
+    }
+    List<Reservation> page = rows.subList(0, size);
+    Reservation last = page.get(size - 1);
+    return new ReservationPage<>(page,
+        new ReservationCursor(last.getReservationTime(), last.getId()).encode());
+  }
+
+  /**
+   * Reservations written by transactions with ids in [{@code since}, watermark),
+   * in transaction order. The watermark is the oldest transaction still
+   * running, taken before the rows are read, so everything below it is
+   * already visible and a slow commit can never land behind a client's
+   * cursor; it just waits for the next poll. A page never splits one
+   * transaction's rows. Clients upsert by id, so a row changed twice comes twice.
+   */
+  public ReservationChanges<Reservation> changesSince(long since, int limit) {
+    int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    long fence = reservationRepo.changeFence();
+    List<Reservation> rows = reservationRepo
+        .findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(since, fence, Limit.of(size + 1));
+    if (rows.size() <= size) {
+      return new ReservationChanges<>(rows, Math.max(since, fence), false);
+    }
+    long cut = rows.get(size).getChangeXid();
+    List<Reservation> page = rows.stream().filter(r -> r.getChangeXid() < cut).toList();
+    if (page.isEmpty()) {
+      // one transaction wrote more rows than a page holds; send it whole
+      return new ReservationChanges<>(reservationRepo.findByChangeXidOrderById(cut), cut + 1, true);
+    }
+    return new ReservationChanges<>(page, cut, true);
+  }
+
+  /** An empty slice whose watermark is the current fence: where a client that just loaded a snapshot starts polling. */
+  public ReservationChanges<Reservation> changesFromNow() {
+    return new ReservationChanges<>(List.of(), reservationRepo.changeFence(), false);
+  }
+
   public List<Reservation> findByPetId(Long petId) {
     return reservationRepo.findByPetId(petId);
   }
@@ -73,22 +554,116 @@ public class ReservationService {
     Reservation r = reservationRepo.findByIdWithLock(id)
         .orElseThrow(() -> new EntityNotFoundException("Reservation " + id));
 
-    if (!Objects.equals(r.getOwnerPhone(), phone))
+    if (!Pet.samePhone(r.getOwnerPhone(), phone))
       throw new IllegalArgumentException("Phone number does not match");
 
     if (r.getStatus() != ReservationStatus.BOOKED)
       throw new IllegalStateException("Only BOOKED reservations can be canceled");
 
     r.setStatus(ReservationStatus.CANCELED);
+    if (!promoteWaiter(r)) {
+      releaseSlot(r);
+    }
+    events.publishEvent(ReservationEvent.of(ReservationEvent.Type.CANCELED, r));
     // JPA will automatically save due to @Transactional and dirty checking
   }
 
+  /**
+   * Hands the slot {@code freed} just gave up to the oldest waiter whose window
+   * covers it, in the cancelling transaction: both commit or neither does. The
+   * slot moves straight from one booking to the next on the same station, so
+   * the index and schedule keep it as taken and are not touched.
+   */
+  private boolean promoteWaiter(Reservation freed) {
+    LocalDateTime t = freed.getReservationTime();
+    if (!freed.isBlocksSlot() || freed.getStationId() == null || !t.isAfter(LocalDateTime.now())) {
+      return false;
+    }
+    var claimed = waitlistRepo.claimBestMatch(freed.getService().getId(), t.toLocalDate(), t.toLocalTime());
+    if (claimed.isEmpty()) {
+      return false;
+    }
+    var entry = claimed.get();
+    // the CANCELED update must reach the DB before the insert, or the
+    // station's exclusion constraint still sees the old booking
+    reservationRepo.flush();
+    var promoted = reservationRepo.saveAndFlush(Reservation.builder()
+        .pet(petRepo.getReferenceById(entry.getPetId()))
+        .service(freed.getService())
+        .reservationTime(t)
+        .ownerPhone(entry.getOwnerPhone())
+        .status(ReservationStatus.BOOKED)
+        .stationId(freed.getStationId())
+        .notes(entry.getNotes())
+        .build());
+    entry.setStatus(WaitlistStatus.PROMOTED);
+    entry.setReservationId(promoted.getId());
+    events.publishEvent(ReservationEvent.of(ReservationEvent.Type.CREATED, promoted));
+    events.publishEvent(new WaitlistPromoted(entry.getId(), promoted.getId(), entry.getOwnerPhone(),
+        promoted.getPet().getName(), freed.getService().getDescription(), t));
+    return true;
+  }
+
   @Transactional
   public void complete(Long id) {
     // Use pessimistic locking to prevent concurrent modifications
     Reservation r = reservationRepo.findByIdWithLock(id)
         .orElseThrow(() -> new EntityNotFoundException("Reservation " + id));
+    boolean wasBooked = r.getStatus() == ReservationStatus.BOOKED;
     r.setStatus(ReservationStatus.COMPLETED);
+    if (wasBooked) {
+      releaseSlot(r);
+    }
+    events.publishEvent(ReservationEvent.of(ReservationEvent.Type.COMPLETED, r));
     // JPA will automatically save due to @Transactional and dirty checking
   }
-}
\ No newline at end of file
+
+  private static BookingConflictException conflict(Long serviceId, LocalDateTime requested) {
+    return new BookingConflictException(
+        "Another reservation is already within the requested time.",
+        serviceId, requested);
+  }
+
+  private static BookingConflictException kennelsFull() {
+    return new BookingConflictException("No kennel is free for every night of that stay.");
+  }
+
+  private static boolean isOverlapViolation(DataIntegrityViolationException ex) {
+    return NestedExceptionUtils.getMostSpecificCause(ex) instanceof SQLException sql
+        && EXCLUSION_VIOLATION.equals(sql.getSQLState());
+  }
+
+  // stays hold no slot: their kennel frees up as soon as the row leaves BOOKED
+  private void releaseSlot(Reservation r) {
+    if (r.isBlocksSlot() && r.getStationId() != null) {
+      long station = r.getStationId();
+      LocalDateTime time = r.getReservationTime();
+      afterCompletion(true, () -> {
+        index.release(station, time);
+        schedule.release(station, time, props.bufferMinutes());
+      });
+    }
+  }
+
+  /**
+   * Runs {@code action} once the surrounding transaction commits ({@code onCommit})
+   * or rolls back ({@code !onCommit}). Outside a transaction it runs immediately
+   * on the commit path and never on the rollback path.
+   */
+  private void afterCompletion(boolean onCommit, Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      if (onCommit) {
+        action.run();
+      }
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if ((status == STATUS_COMMITTED) == onCommit) {
+          action.run();
+        }
+      }
+    });
+  }
+}
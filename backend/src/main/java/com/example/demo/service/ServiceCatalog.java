@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ServiceOfferingDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+
+/**
+ * In-process copy of the service catalog, kept both as DTOs and as
+ * pre-rendered JSON so GET /api/services needs neither the DB nor Jackson.
+ * Reloaded on a timer and on {@link #invalidate()}, which bumps the shared
+ * catalog_version row; every replica polls that stamp and reloads when it
+ * moves, so a refresh sent to one node reaches all of them.
+ */
+@Slf4j
+@Component
+public class ServiceCatalog {
+
+  /** Published whenever a reload produced a different catalog. */
+  public record Refreshed(Snapshot snapshot) {
+  }
+
+  public record Snapshot(
+      List<ServiceOfferingDTO> items,
+      Map<Long, ServiceOfferingDTO> byId,
+      byte[] json,
+      Map<Long, byte[]> jsonById,
+      String etag) {
+
+    public static Snapshot build(List<ServiceOfferingDTO> items, ObjectMapper mapper) {
+      try {
+        byte[] json = mapper.writeValueAsBytes(items);
+        var byId = new HashMap<Long, ServiceOfferingDTO>();
+        var jsonById = new HashMap<Long, byte[]>();
+        for (ServiceOfferingDTO s : items) {
+          byId.put(s.id(), s);
+          jsonById.put(s.id(), mapper.writeValueAsBytes(s));
+        }
+        // content hash, so every replica serves the same ETag for the same catalog
+        var crc = new CRC32();
+        crc.update(json);
+        return new Snapshot(List.copyOf(items), Map.copyOf(byId), json, Map.copyOf(jsonById),
+            "\"s" + Long.toHexString(crc.getValue()) + "\"");
+      } catch (JsonProcessingException ex) {
+        throw new IllegalStateException("Cannot serialize service catalog", ex);
+      }
+    }
+  }
+
+  private final ServiceOfferingService offerings;
+  private final ObjectMapper mapper;
+  private final ApplicationEventPublisher events;
+  private final Counter hits;
+  private final Counter misses;
+
+  private volatile Snapshot current;
+  // catalog_version as of the last reload; -1 until the first one
+  private volatile long version = -1;
+
+  public ServiceCatalog(ServiceOfferingService offerings, ObjectMapper mapper,
+      ApplicationEventPublisher events, MeterRegistry meters) {
+    this.offerings = offerings;
+    this.mapper = mapper;
+    this.events = events;
+    this.hits = meters.counter("service.catalog.hits");
+    this.misses = meters.counter("service.catalog.misses");
+  }
+
+  public Snapshot snapshot() {
+    Snapshot s = current;
+    if (s != null) {
+      hits.increment();
+      return s;
+    }
+    misses.increment();
+    return reload();
+  }
+
+  public Optional<ServiceOfferingDTO> find(Long id) {
+    return Optional.ofNullable(snapshot().byId().get(id));
+  }
+
+  /** Drops the cached copy here and, through the version stamp, on every other replica. */
+  public void invalidate() {
+    offerings.bumpCatalogVersion();
+    current = null;
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reload();
+  }
+
+  @Scheduled(fixedDelayString = "${services.catalog.refresh-millis:300000}",
+      initialDelayString = "${services.catalog.refresh-millis:300000}")
+  public void refresh() {
+    reload();
+  }
+
+  @Scheduled(fixedDelayString = "${services.catalog.version-check-millis:5000}",
+      initialDelayString = "${services.catalog.version-check-millis:5000}")
+  public void checkVersion() {
+    if (offerings.catalogVersion() != version) {
+      reload();
+    }
+  }
+
+  synchronized Snapshot reload() {
+    // read before the rows, so a bump racing this load triggers one more
+    version = offerings.catalogVersion();
+    Snapshot previous = current;
+    Snapshot next = Snapshot.build(offerings.findAll(), mapper);
+    if (previous != null && Arrays.equals(previous.json(), next.json())) {
+      return previous;
+    }
+    current = next;
+    log.info("Service catalog loaded: {} offerings, etag {}", next.items().size(), next.etag());
+    events.publishEvent(new Refreshed(next));
+    return next;
+  }
+}
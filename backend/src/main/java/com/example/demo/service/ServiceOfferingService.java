@@ -29,4 +29,13 @@ public class ServiceOfferingService {
             HttpStatus.NOT_FOUND,
             "Service with id %d not found".formatted(id)));
   }
-}
\ No newline at end of file
+
+  /** Stamp that moves whenever any replica asks for the catalog to be reloaded. */
+  public long catalogVersion() {
+    return repo.catalogVersion();
+  }
+
+  public void bumpCatalogVersion() {
+    repo.bumpCatalogVersion();
+  }
+}
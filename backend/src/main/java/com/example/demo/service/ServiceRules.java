@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import com.example.demo.config.BookingConfig;
+import com.example.demo.dto.ServiceOfferingDTO;
+import com.example.demo.exception.InvalidBookingException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compiled booking windows: per service a day-of-week bitmask and
+ * minute-of-day bounds, looked up by id or code. Built from the service
+ * catalog with {@code booking.services} entries overriding by code, and
+ * swapped atomically whenever the catalog reloads.
+ */
+@Component
+@RequiredArgsConstructor
+public class ServiceRules {
+
+  public record Rule(long serviceId, String code, int dayMask, int startMinute, int endMinute) {
+
+    public boolean allowsDay(DayOfWeek day) {
+      return (dayMask & bit(day)) != 0;
+    }
+
+    // compares the full time of day, so 18:00:30 is already past an 18:00 close
+    public boolean allows(LocalDateTime ts) {
+      LocalTime time = ts.toLocalTime();
+      return allowsDay(ts.getDayOfWeek())
+          && !time.isBefore(timeOf(startMinute))
+          && !time.isAfter(timeOf(endMinute));
+    }
+  }
+
+  private record Table(Map<Long, Rule> byId, Map<String, Rule> byCode) {
+  }
+
+  private final ServiceCatalog catalog;
+  private final BookingConfig config;
+
+  private volatile Table table;
+
+  @EventListener
+  public void onCatalogRefreshed(ServiceCatalog.Refreshed event) {
+    table = compile(event.snapshot().items());
+  }
+
+  public Rule forService(Long serviceId) {
+    if (serviceId == null) {
+      throw new InvalidBookingException("Service is required");
+    }
+    Rule rule = table().byId().get(serviceId);
+    if (rule == null) {
+      throw new InvalidBookingException("Unknown service " + serviceId);
+    }
+    return rule;
+  }
+
+  public Rule forCode(String code) {
+    if (code == null) {
+      return null;
+    }
+    return table().byCode().get(code.toUpperCase(Locale.ROOT));
+  }
+
+  /** Rejects requests outside the service's days or opening hours. */
+  public void check(Long serviceId, LocalDateTime ts) {
+    if (ts == null) {
+      throw new InvalidBookingException("Reservation time is required");
+    }
+    if (!forService(serviceId).allows(ts)) {
+      throw new InvalidBookingException("Requested time is outside the service's booking window.");
+    }
+  }
+
+  private Table table() {
+    Table t = table;
+    if (t == null) {
+      t = compile(catalog.snapshot().items());
+      table = t;
+    }
+    return t;
+  }
+
+  private Table compile(Collection<ServiceOfferingDTO> offerings) {
+    var byId = new HashMap<Long, Rule>();
+    var byCode = new HashMap<String, Rule>();
+    for (ServiceOfferingDTO s : offerings) {
+      var override = config.ruleFor(s.code());
+      Rule rule = override
+          .map(o -> new Rule(s.id(), s.code(), mask(o.getAllowedDays()),
+              minuteOf(o.getStartTime()), minuteOf(o.getEndTime())))
+          .orElseGet(() -> new Rule(s.id(), s.code(), mask(parseDays(s.allowedDays())),
+              minuteOf(LocalTime.parse(s.startTime())), minuteOf(LocalTime.parse(s.endTime()))));
+      byId.put(rule.serviceId(), rule);
+      byCode.put(rule.code().toUpperCase(Locale.ROOT), rule);
+    }
+    return new Table(Map.copyOf(byId), Map.copyOf(byCode));
+  }
+
+  static int bit(DayOfWeek day) {
+    return 1 << day.ordinal();
+  }
+
+  static int mask(Collection<DayOfWeek> days) {
+    int m = 0;
+    for (DayOfWeek d : days) {
+      m |= bit(d);
+    }
+    return m;
+  }
+
+  private static List<DayOfWeek> parseDays(String csv) {
+    if (csv == null || csv.isBlank()) {
+      return List.of();
+    }
+    return Arrays.stream(csv.split(","))
+        .map(String::trim)
+        .map(d -> d.toUpperCase(Locale.ROOT))
+        .map(DayOfWeek::valueOf)
+        .toList();
+  }
+
+  // a bound of 24:00 or later means open until midnight
+  private static LocalTime timeOf(int minuteOfDay) {
+    return minuteOfDay >= 24 * 60 ? LocalTime.MAX : LocalTime.of(minuteOfDay / 60, minuteOfDay % 60);
+  }
+
+  private static int minuteOf(LocalTime t) {
+    return t.getHour() * 60 + t.getMinute();
+  }
+}
@@ -0,0 +1,173 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReservationProps;
+import com.example.demo.dto.SlotHold;
+import com.example.demo.exception.BookingConflictException;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Short in-memory leases on a station at a start time, taken while a
+ * customer fills in the booking form. Expiry runs on a {@link TimerWheel}
+ * ticked by one daemon thread, so there is no sweep over the DB. Holds are
+ * per node: the exclusion constraint still decides between replicas. The
+ * endpoint is anonymous, so each client may keep only a few live holds and
+ * the node as a whole a bounded number.
+ */
+@Component
+public class SlotHolds {
+
+  // station is null for services that never clash
+  private record Entry(SlotHold hold, Long station, String client, TimerWheel.Timeout timeout) {
+  }
+
+  private final ServiceRules rules;
+  private final SlotSchedule schedule;
+  private final Stations stations;
+  private final ReservationProps props;
+  private final long ttlMillis;
+  private final int maxPerClient;
+  private final int maxLive;
+  private final TimerWheel wheel;
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+    var t = new Thread(r, "slot-hold-wheel");
+    t.setDaemon(true);
+    return t;
+  });
+
+  private final Map<String, Entry> byToken = new HashMap<>();
+  // station -> (start time -> number of holds at that exact time)
+  private final Map<Long, NavigableMap<LocalDateTime, Integer>> held = new HashMap<>();
+  // client -> number of live holds it has placed
+  private final Map<String, Integer> perClient = new HashMap<>();
+
+  public SlotHolds(ServiceRules rules, SlotSchedule schedule, Stations stations, ReservationProps props,
+      @Value("${reservation.hold.ttl-seconds:300}") long ttlSeconds,
+      @Value("${reservation.hold.tick-millis:1000}") long tickMillis,
+      @Value("${reservation.hold.max-per-client:3}") int maxPerClient,
+      @Value("${reservation.hold.max-live:1000}") int maxLive) {
+    this.rules = rules;
+    this.schedule = schedule;
+    this.stations = stations;
+    this.props = props;
+    this.ttlMillis = TimeUnit.SECONDS.toMillis(ttlSeconds);
+    this.maxPerClient = maxPerClient;
+    this.maxLive = maxLive;
+    this.wheel = new TimerWheel(tickMillis, System.currentTimeMillis());
+    ticker.scheduleAtFixedRate(() -> wheel.advance(System.currentTimeMillis()),
+        tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Leases the lowest station of the service that is neither booked nor held
+   * around {@code time}, or throws a conflict if every station is taken.
+   * {@code client} (the caller's resolved address) is refused with 429 once it
+   * holds its share, as is everyone once the node holds {@code max-live}.
+   * The schedule, which may have to load from the DB, is read before taking
+   * the lock; only the hold check and insert run under it.
+   */
+  public SlotHold place(Long serviceId, LocalDateTime time, String client) {
+    rules.check(serviceId, time);
+    boolean blocking = !ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(rules.forService(serviceId).code());
+    int buffer = props.bufferMinutes();
+    List<Long> candidates = List.of();
+    if (blocking) {
+      schedule.ensureLoaded(time.toLocalDate().minusDays(1), time.toLocalDate().plusDays(1));
+      candidates = stations.of(serviceId).stream()
+          .filter(s -> schedule.isFree(s, time, buffer))
+          .toList();
+    }
+    synchronized (this) {
+      if (perClient.getOrDefault(client, 0) >= maxPerClient) {
+        throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many slots held, release one first");
+      }
+      if (byToken.size() >= maxLive) {
+        throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many slots held right now, try again shortly");
+      }
+      Long station = null;
+      if (blocking) {
+        station = candidates.stream()
+            .filter(s -> !clashes(s, time, buffer))
+            .findFirst()
+            .orElseThrow(() -> new BookingConflictException("That time is no longer available.", serviceId, time));
+      }
+      String token = UUID.randomUUID().toString();
+      long expiresAt = System.currentTimeMillis() + ttlMillis;
+      var hold = new SlotHold(token, serviceId, time, Instant.ofEpochMilli(expiresAt));
+      var timeout = wheel.schedule(expiresAt, () -> release(token));
+      byToken.put(token, new Entry(hold, station, client, timeout));
+      perClient.merge(client, 1, Integer::sum);
+      if (station != null) {
+        held.computeIfAbsent(station, s -> new TreeMap<>()).merge(time, 1, Integer::sum);
+      }
+      return hold;
+    }
+  }
+
+  /** True if a hold on {@code station} lies within {@code bufferMinutes} of {@code time}. */
+  public synchronized boolean clashes(long station, LocalDateTime time, int bufferMinutes) {
+    var times = held.get(station);
+    return times != null
+        && !times.subMap(time.minusMinutes(bufferMinutes), true, time.plusMinutes(bufferMinutes), true).isEmpty();
+  }
+
+  /** True if {@code token} is a live hold on exactly this service and time. */
+  public synchronized boolean isHeld(String token, Long serviceId, LocalDateTime time) {
+    var e = token == null ? null : byToken.get(token);
+    return e != null
+        && e.hold().serviceId().equals(serviceId)
+        && e.hold().time().equals(time)
+        && e.hold().expiresAt().isAfter(Instant.now());
+  }
+
+  /** Station fenced off by a live hold, or null if there is none. */
+  public synchronized Long stationOf(String token) {
+    var e = token == null ? null : byToken.get(token);
+    return e == null ? null : e.station();
+  }
+
+  public synchronized void release(String token) {
+    var e = byToken.remove(token);
+    if (e == null) {
+      return;
+    }
+    e.timeout().cancel();
+    perClient.computeIfPresent(e.client(), (c, n) -> n > 1 ? n - 1 : null);
+    var times = e.station() == null ? null : held.get(e.station());
+    if (times != null) {
+      times.computeIfPresent(e.hold().time(), (t, n) -> n > 1 ? n - 1 : null);
+      if (times.isEmpty()) {
+        held.remove(e.station());
+      }
+    }
+  }
+
+  public synchronized int size() {
+    return byToken.size();
+  }
+
+  // test hook: run the wheel as if the clock read nowMillis
+  void advanceTo(long nowMillis) {
+    wheel.advance(nowMillis);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+  }
+}
@@ -0,0 +1,94 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Cross-node mutual exclusion for bookings, using transaction-scoped Postgres
+ * advisory locks on fixed-size time buckets of one service. Two bookings of
+ * a service within the buffer of each other always share at least one
+ * bucket, so they serialize while picking a station; other services and
+ * bookings further apart proceed in parallel on every replica.
+ */
+@Component
+public class SlotLocks {
+
+  // high half of the first advisory lock key, so other lock users can't collide;
+  // the low half is the service id, which stays far below 2^16
+  static final int LOCK_NAMESPACE = 0x0BE0;
+  // same layout for the per-night locks of boarding stays
+  static final int NIGHT_NAMESPACE = 0x0BE1;
+
+  private final JdbcTemplate jdbc;
+  private final long bucketMinutes;
+  private final Timer waitTimer;
+
+  public SlotLocks(JdbcTemplate jdbc,
+      @Value("${reservation.lock-bucket-minutes:60}") long bucketMinutes,
+      MeterRegistry meters) {
+    this.jdbc = jdbc;
+    this.bucketMinutes = bucketMinutes;
+    this.waitTimer = meters.timer("reservation.lock.wait");
+  }
+
+  /** Blocks until every bucket of the service touched by {@code time ± bufferMinutes} is held. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void lock(long serviceId, LocalDateTime time, int bufferMinutes) {
+    lockAll(Map.of(serviceId, List.of(time)), bufferMinutes);
+  }
+
+  /** Same as {@link #lock} for several services and times at once, e.g. a batch or series. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void lockAll(Map<Long, ? extends Collection<LocalDateTime>> timesByService, int bufferMinutes) {
+    var buckets = new TreeMap<Long, TreeSet<Long>>();
+    timesByService.forEach((service, times) -> {
+      var own = buckets.computeIfAbsent(service, s -> new TreeSet<>());
+      for (LocalDateTime time : times) {
+        long last = bucketOf(time.plusMinutes(bufferMinutes));
+        for (long b = bucketOf(time.minusMinutes(bufferMinutes)); b <= last; b++) {
+          own.add(b);
+        }
+      }
+    });
+    // always ascending by (service, bucket), so two bookings never wait on each other in opposite order
+    waitTimer.record(() -> buckets.forEach((service, own) -> {
+      for (long b : own) {
+        jdbc.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> {
+        }, keyOf(service), (int) b);
+      }
+    }));
+  }
+
+  /** Blocks until every night in [from, to) of the service is held, in date order. */
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void lockNights(long serviceId, LocalDate from, LocalDate to) {
+    waitTimer.record(() -> {
+      for (LocalDate d = from; d.isBefore(to); d = d.plusDays(1)) {
+        jdbc.query("SELECT pg_advisory_xact_lock(?, ?)", rs -> {
+        }, NIGHT_NAMESPACE << 16 | (int) (serviceId & 0xFFFF), (int) d.toEpochDay());
+      }
+    });
+  }
+
+  static int keyOf(long serviceId) {
+    return LOCK_NAMESPACE << 16 | (int) (serviceId & 0xFFFF);
+  }
+
+  long bucketOf(LocalDateTime t) {
+    return Math.floorDiv(t.toEpochSecond(ZoneOffset.UTC) / 60, bucketMinutes);
+  }
+}
@@ -0,0 +1,147 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StationBooking;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.repo.ReservationRepo;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-day, per-station bitmaps of slot-blocking BOOKED start minutes. Days
+ * are loaded for every station with one range query, updated in place by
+ * {@link ReservationService} after commit, and reloaded after a TTL so
+ * writes from other replicas show up.
+ */
+@Component
+public class SlotSchedule {
+
+  private final ReservationRepo reservationRepo;
+  private final long ttlMillis;
+
+  // stations without a booking that day have no bitmap; booked holds the
+  // starts recorded by book() since the day was loaded
+  private record Entry(Map<Long, DaySchedule> stations, Map<Long, DaySchedule> booked, long loadedAt) {
+  }
+
+  private final Map<LocalDate, Entry> days = new ConcurrentHashMap<>();
+
+  public SlotSchedule(ReservationRepo reservationRepo,
+      @Value("${reservation.schedule.ttl-millis:30000}") long ttlMillis) {
+    this.reservationRepo = reservationRepo;
+    this.ttlMillis = ttlMillis;
+  }
+
+  /**
+   * Loads every missing or stale day in [from, to] with a single range query.
+   * Stale days in the range are replaced, never removed first, so a
+   * concurrent {@link #isFree} always finds a bitmap for them. A booking
+   * committed after the query read its snapshot is only in the old bitmap,
+   * so the starts booked into it are OR-ed into its replacement.
+   */
+  public void ensureLoaded(LocalDate from, LocalDate to) {
+    long now = System.currentTimeMillis();
+    days.entrySet().removeIf(e -> (e.getKey().isBefore(from) || e.getKey().isAfter(to))
+        && now - e.getValue().loadedAt() > ttlMillis);
+    LocalDate first = null;
+    LocalDate last = null;
+    for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+      Entry e = days.get(d);
+      if (e == null || now - e.loadedAt() > ttlMillis) {
+        if (first == null) {
+          first = d;
+        }
+        last = d;
+      }
+    }
+    if (first == null) {
+      return;
+    }
+    List<StationBooking> bookings = reservationRepo.findStationBookingsBetween(
+        first.atStartOfDay(), last.plusDays(1).atStartOfDay(), ReservationStatus.BOOKED);
+    var loaded = new HashMap<LocalDate, Entry>();
+    for (LocalDate d = first; !d.isAfter(last); d = d.plusDays(1)) {
+      loaded.put(d, new Entry(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), now));
+    }
+    bookings.forEach(b -> mark(loaded.get(b.time().toLocalDate()).stations(), b.stationId(), b.time()));
+    // merge runs atomically with book() on the same day, so no start falls between the two bitmaps
+    loaded.forEach((d, fresh) -> days.merge(d, fresh, (old, f) -> {
+      old.booked().forEach((station, bits) ->
+          f.stations().computeIfAbsent(station, k -> new DaySchedule()).or(bits));
+      return f;
+    }));
+  }
+
+  /**
+   * True if no booking on {@code station} starts within {@code bufferMinutes}
+   * of {@code time}, i.e. |t - b| <= buffer, the same rule as the overlap
+   * constraint. A day that is not loaded is loaded first; if it still is not
+   * there the answer is busy, never free.
+   */
+  public boolean isFree(long station, LocalDateTime time, int bufferMinutes) {
+    LocalDateTime start = time.minusMinutes(bufferMinutes);
+    LocalDateTime end = time.plusMinutes(bufferMinutes);
+    for (LocalDate d = start.toLocalDate(); !d.isAfter(end.toLocalDate()); d = d.plusDays(1)) {
+      Entry e = days.get(d);
+      if (e == null) {
+        ensureLoaded(d, d);
+        e = days.get(d);
+        if (e == null) {
+          return false;
+        }
+      }
+      DaySchedule day = e.stations().get(station);
+      if (day == null) {
+        continue;
+      }
+      int from = d.equals(start.toLocalDate()) ? minuteOf(start) : 0;
+      int to = d.equals(end.toLocalDate()) ? minuteOf(end) : DaySchedule.MINUTES_PER_DAY - 1;
+      if (day.anyBetween(from, to)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  public void book(long station, LocalDateTime time) {
+    days.computeIfPresent(time.toLocalDate(), (d, e) -> {
+      mark(e.stations(), station, time);
+      mark(e.booked(), station, time);
+      return e;
+    });
+  }
+
+  public void release(long station, LocalDateTime time, int bufferMinutes) {
+    // with no buffer two bookings may start in the same minute and share a bit
+    if (bufferMinutes < 1) {
+      days.remove(time.toLocalDate());
+      return;
+    }
+    Entry e = days.get(time.toLocalDate());
+    if (e == null) {
+      return;
+    }
+    for (Map<Long, DaySchedule> bitmaps : List.of(e.stations(), e.booked())) {
+      DaySchedule day = bitmaps.get(station);
+      if (day != null) {
+        day.clear(minuteOf(time));
+      }
+    }
+  }
+
+  private static void mark(Map<Long, DaySchedule> bitmaps, Long station, LocalDateTime time) {
+    if (station != null) {
+      bitmaps.computeIfAbsent(station, k -> new DaySchedule()).set(minuteOf(time));
+    }
+  }
+
+  private static int minuteOf(LocalDateTime t) {
+    return t.getHour() * 60 + t.getMinute();
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Station;
+import com.example.demo.repo.StationRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * In-process copy of the active stations per service, in id order. A
+ * service's capacity is the size of its list. Reloaded with the service
+ * catalog so station changes show up without a restart.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class Stations {
+
+  private final StationRepo stationRepo;
+
+  private volatile Map<Long, List<Long>> byService;
+
+  /** Active station ids of the service, lowest first; empty if it has none. */
+  public List<Long> of(Long serviceId) {
+    return table().getOrDefault(serviceId, List.of());
+  }
+
+  public int capacity(Long serviceId) {
+    return of(serviceId).size();
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warmUp() {
+    reload();
+  }
+
+  @Scheduled(fixedDelayString = "${services.catalog.refresh-millis:300000}",
+      initialDelayString = "${services.catalog.refresh-millis:300000}")
+  public void refresh() {
+    reload();
+  }
+
+  @EventListener
+  public void onCatalogRefreshed(ServiceCatalog.Refreshed event) {
+    reload();
+  }
+
+  private Map<Long, List<Long>> table() {
+    Map<Long, List<Long>> t = byService;
+    return t != null ? t : reload();
+  }
+
+  synchronized Map<Long, List<Long>> reload() {
+    Map<Long, List<Long>> next = stationRepo.findByActiveTrueOrderByServiceIdAscIdAsc().stream()
+        .collect(Collectors.groupingBy(Station::getServiceId,
+            Collectors.mapping(Station::getId, Collectors.toCollection(ArrayList::new))));
+    next.replaceAll((service, ids) -> List.copyOf(ids));
+    byService = Map.copyOf(next);
+    log.info("Stations loaded for {} services", next.size());
+    return byService;
+  }
+}
@@ -0,0 +1,107 @@
+package com.example.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel: four levels of 64 slots, each level's slot
+ * spanning a whole turn of the level below. Scheduling and cancelling are
+ * O(1); each tick touches one level-0 slot, and entries further out are
+ * re-filed downwards once per level as their turn comes round.
+ */
+final class TimerWheel {
+
+  private static final int BITS = 6;
+  private static final int SIZE = 1 << BITS;
+  private static final int MASK = SIZE - 1;
+  private static final int LEVELS = 4;
+
+  static final class Timeout {
+    private final long deadlineTick;
+    private final Runnable task;
+    private volatile boolean cancelled;
+
+    private Timeout(long deadlineTick, Runnable task) {
+      this.deadlineTick = deadlineTick;
+      this.task = task;
+    }
+
+    void cancel() {
+      cancelled = true;
+    }
+  }
+
+  private final long tickMillis;
+  private final List<ArrayDeque<Timeout>> slots = new ArrayList<>(LEVELS * SIZE);
+  private long currentTick;
+
+  TimerWheel(long tickMillis, long startMillis) {
+    this.tickMillis = tickMillis;
+    this.currentTick = startMillis / tickMillis;
+    for (int i = 0; i < LEVELS * SIZE; i++) {
+      slots.add(new ArrayDeque<>());
+    }
+  }
+
+  synchronized Timeout schedule(long deadlineMillis, Runnable task) {
+    // round up so a task never fires early; the current tick is already done
+    long tick = Math.max(Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis), currentTick + 1);
+    var timeout = new Timeout(tick, task);
+    place(timeout);
+    return timeout;
+  }
+
+  /** Moves the wheel up to {@code nowMillis} and runs whatever fell due, outside the wheel's lock. */
+  void advance(long nowMillis) {
+    List<Runnable> due = collect(nowMillis / tickMillis);
+    due.forEach(Runnable::run);
+  }
+
+  private synchronized List<Runnable> collect(long targetTick) {
+    var due = new ArrayList<Runnable>();
+    while (currentTick < targetTick) {
+      currentTick++;
+      // re-file the outer levels whose turn starts now, outermost first
+      int top = 0;
+      while (top + 1 < LEVELS && (currentTick & ((1L << (BITS * (top + 1))) - 1)) == 0) {
+        top++;
+      }
+      for (int level = top; level >= 1; level--) {
+        var bucket = slot(level, (int) ((currentTick >>> (BITS * level)) & MASK));
+        var moving = new ArrayList<>(bucket);
+        bucket.clear();
+        moving.forEach(this::place);
+      }
+      var bucket = slot(0, (int) (currentTick & MASK));
+      for (int n = bucket.size(); n > 0; n--) {
+        var t = bucket.poll();
+        if (t.cancelled) {
+          continue;
+        }
+        if (t.deadlineTick <= currentTick) {
+          due.add(t.task);
+        } else {
+          place(t);
+        }
+      }
+    }
+    return due;
+  }
+
+  private void place(Timeout t) {
+    if (t.cancelled) {
+      return;
+    }
+    long delta = t.deadlineTick - currentTick;
+    int level = 0;
+    while (level + 1 < LEVELS && delta >= 1L << (BITS * (level + 1))) {
+      level++;
+    }
+    slot(level, (int) ((t.deadlineTick >>> (BITS * level)) & MASK)).add(t);
+  }
+
+  private ArrayDeque<Timeout> slot(int level, int index) {
+    return slots.get(level * SIZE + index);
+  }
+}
@@ -0,0 +1,70 @@
+package com.example.demo.service;
+
+import com.example.demo.config.RetryProps;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a whole transaction when Postgres aborts it with a serialization
+ * failure (40001) or deadlock (40P01). Must wrap the transactional call from
+ * the outside so every attempt gets a fresh transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransactionRetry {
+
+  private static final Set<String> RETRYABLE_STATES = Set.of("40001", "40P01");
+
+  private final RetryProps props;
+  private final MeterRegistry meters;
+
+  public <T> T run(String operation, Supplier<T> tx) {
+    for (int attempt = 1;; attempt++) {
+      try {
+        return tx.get();
+      } catch (RuntimeException ex) {
+        if (!isRetryable(ex)) {
+          throw ex;
+        }
+        if (attempt >= props.maxAttempts()) {
+          meters.counter("reservation.retry.giveups", "operation", operation).increment();
+          log.warn("{} gave up after {} attempts: {}", operation, attempt, ex.getMessage());
+          throw ex;
+        }
+        meters.counter("reservation.retry.attempts", "operation", operation).increment();
+        backoff(attempt, ex);
+      }
+    }
+  }
+
+  static boolean isRetryable(Throwable ex) {
+    for (Throwable t = ex; t != null; t = t.getCause()) {
+      if (t instanceof SQLException sql && RETRYABLE_STATES.contains(sql.getSQLState())) {
+        return true;
+      }
+      if (t.getCause() == t) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  // "Full jitter": sleep a random time up to the capped exponential backoff
+  private void backoff(int attempt, RuntimeException cause) {
+    long cap = Math.min(props.maxBackoffMillis(), props.baseBackoffMillis() << Math.min(attempt, 20));
+    try {
+      Thread.sleep(ThreadLocalRandom.current().nextLong(cap + 1));
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw cause;
+    }
+  }
+}
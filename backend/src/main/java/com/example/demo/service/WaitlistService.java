@@ -0,0 +1,71 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.WaitlistRequest;
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.model.Pet;
+import com.example.demo.model.WaitlistEntry;
+import com.example.demo.model.WaitlistStatus;
+import com.example.demo.repo.PetRepo;
+import com.example.demo.repo.WaitlistRepo;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Joining and leaving the waitlist. Promotion happens inside
+ * {@link ReservationService#cancel}, in the cancelling transaction.
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+
+  private final WaitlistRepo waitlistRepo;
+  private final PetRepo petRepo;
+  private final ServiceRules rules;
+
+  @Transactional
+  public WaitlistEntry join(WaitlistRequest req) {
+    if (req.day() == null || req.windowStart() == null || req.windowEnd() == null) {
+      throw new InvalidBookingException("A day and a time window are required");
+    }
+    if (req.windowStart().isAfter(req.windowEnd())) {
+      throw new InvalidBookingException("The window must start before it ends");
+    }
+    if (req.day().isBefore(LocalDate.now())) {
+      throw new InvalidBookingException("That day has already passed");
+    }
+    var rule = rules.forService(req.serviceId());
+    if (ReservationIndex.NO_CONFLICT_SERVICE.equalsIgnoreCase(rule.code())) {
+      // a freed kennel comes with its own nights; there is no slot to hand over
+      throw new InvalidBookingException("Boarding has no waitlist");
+    }
+    if (!rule.allowsDay(req.day().getDayOfWeek())) {
+      throw new InvalidBookingException("The service is not offered on that day");
+    }
+    var pet = petRepo.findById(req.petId())
+        .orElseThrow(() -> new InvalidBookingException("Unknown pet " + req.petId()));
+    return waitlistRepo.save(WaitlistEntry.builder()
+        .petId(pet.getId())
+        .serviceId(req.serviceId())
+        .ownerPhone(pet.getOwnerPhone())
+        .preferredDay(req.day())
+        .windowStart(req.windowStart())
+        .windowEnd(req.windowEnd())
+        .notes(req.notes())
+        .build());
+  }
+
+  @Transactional
+  public void withdraw(long id, String phone) {
+    var entry = waitlistRepo.findById(id)
+        .orElseThrow(() -> new EntityNotFoundException("Waitlist entry " + id));
+    if (!Pet.samePhone(entry.getOwnerPhone(), phone))
+      throw new IllegalArgumentException("Phone number does not match");
+    if (entry.getStatus() != WaitlistStatus.WAITING)
+      throw new IllegalStateException("Only WAITING entries can be withdrawn");
+    entry.setStatus(WaitlistStatus.WITHDRAWN);
+  }
+}
@@ -0,0 +1,45 @@
+-- Boarding is a stay: check-in at reservation_time, check-out on check_out
+-- (exclusive), holding one kennel for every night in between.  Kennels are
+-- the BOARD service's stations, so boarding capacity is its kennel count.
+ALTER TABLE reservation ADD COLUMN check_out DATE;
+
+ALTER TABLE reservation ADD COLUMN stay DATERANGE
+    GENERATED ALWAYS AS (
+        CASE WHEN check_out IS NOT NULL
+             THEN daterange(reservation_time::date, check_out, '[)')
+        END) STORED;
+
+INSERT INTO station (service_id, name)
+SELECT s.id, 'Kennel ' || n
+  FROM service s, generate_series(1, 6) n
+ WHERE s.code = 'BOARD';
+
+-- Earlier boardings were a single drop-off: count each as one night and
+-- spread a night's bookings over the kennels.  Any beyond capacity keep no
+-- kennel, so the constraint below leaves them alone.
+WITH nightly AS (
+    SELECT r.id, r.service_id,
+           row_number() OVER (PARTITION BY r.service_id, r.reservation_time::date
+                              ORDER BY r.status <> 'BOOKED', r.id) AS n
+      FROM reservation r
+      JOIN service s ON s.id = r.service_id
+     WHERE s.code = 'BOARD'
+), kennels AS (
+    SELECT id, service_id,
+           row_number() OVER (PARTITION BY service_id ORDER BY id) AS n
+      FROM station
+)
+UPDATE reservation r
+   SET check_out  = r.reservation_time::date + 1,
+       station_id = k.id
+  FROM nightly x
+  LEFT JOIN kennels k ON k.service_id = x.service_id AND k.n = x.n
+ WHERE r.id = x.id;
+
+ALTER TABLE reservation ADD CONSTRAINT reservation_kennel_no_overlap
+    EXCLUDE USING gist (station_id WITH =, stay WITH &&)
+    WHERE (status = 'BOOKED');
+
+-- busy-kennel lookups and the nightly occupancy view are range-overlap scans here
+CREATE INDEX idx_reservation_stay ON reservation USING gist (service_id, stay)
+    WHERE status = 'BOOKED';
@@ -0,0 +1,20 @@
+-- Customers waiting for a (service, day) that was full, with the time window
+-- they could make.  A cancellation hands its slot to the oldest matching waiter.
+CREATE TABLE waitlist_entry (
+    id              BIGSERIAL PRIMARY KEY,
+    pet_id          BIGINT       NOT NULL REFERENCES pet(id) ON DELETE CASCADE,
+    service_id      BIGINT       NOT NULL REFERENCES service(id),
+    owner_phone     VARCHAR(32)  NOT NULL,
+    preferred_day   DATE         NOT NULL,
+    window_start    TIME         NOT NULL,
+    window_end      TIME         NOT NULL,
+    notes           TEXT,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'WAITING',
+    reservation_id  BIGINT       REFERENCES reservation(id),
+    created_at      TIMESTAMP    DEFAULT now(),
+    CONSTRAINT waitlist_window_order CHECK (window_start <= window_end)
+);
+
+-- promotion looks up (service, preferred_day, start <= t) and filters end >= t from the index
+CREATE INDEX idx_waitlist_match ON waitlist_entry (service_id, preferred_day, window_start, window_end, id)
+    WHERE status = 'WAITING';
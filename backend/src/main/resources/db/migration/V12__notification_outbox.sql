@@ -0,0 +1,20 @@
+-- Customer messages written in the same transaction as the booking change
+-- they announce, and sent later by OutboxDispatcher on any node.
+CREATE TABLE notification_outbox (
+    id               BIGSERIAL PRIMARY KEY,
+    reservation_id   BIGINT,
+    kind             VARCHAR(20)  NOT NULL,
+    channel          VARCHAR(10)  NOT NULL,
+    recipient        VARCHAR(32)  NOT NULL,
+    body             TEXT         NOT NULL,
+    status           VARCHAR(10)  NOT NULL DEFAULT 'PENDING',
+    attempts         INT          NOT NULL DEFAULT 0,
+    next_attempt_at  TIMESTAMP    NOT NULL DEFAULT now(),
+    last_error       TEXT,
+    created_at       TIMESTAMP    DEFAULT now(),
+    sent_at          TIMESTAMP
+);
+
+-- the dispatcher only ever scans due PENDING rows, oldest first
+CREATE INDEX idx_outbox_due ON notification_outbox (next_attempt_at, id)
+    WHERE status = 'PENDING';
@@ -0,0 +1,10 @@
+-- Version stamp behind the reservation ETags.  Bumped in its own short
+-- transaction after every committed reservation write, so it moves exactly
+-- when the visible data does (a sequence's last_value also counts values
+-- taken by transactions that have not committed yet).
+CREATE TABLE reservation_watermark (
+    id       INT     PRIMARY KEY CHECK (id = 1),
+    version  BIGINT  NOT NULL
+);
+
+INSERT INTO reservation_watermark (id, version) VALUES (1, 0);
@@ -0,0 +1,19 @@
+-- The change feed's cursor becomes the id of the transaction that last wrote
+-- a row.  Ids below pg_snapshot_xmin() belong to transactions that have
+-- finished, so the feed only hands out rows once nothing can still commit
+-- beneath the cursor.  A sequence value could not give that guarantee: it
+-- is taken long before the commit that makes the row visible.
+ALTER TABLE reservation ADD COLUMN change_xid BIGINT NOT NULL DEFAULT 0;
+
+CREATE OR REPLACE FUNCTION reservation_stamp_change() RETURNS trigger AS $$
+BEGIN
+    NEW.change_xid := pg_current_xact_id()::text::bigint;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP INDEX idx_reservation_change_seq;
+ALTER TABLE reservation DROP COLUMN change_seq;
+DROP SEQUENCE reservation_change_seq;
+
+CREATE INDEX idx_reservation_change_xid ON reservation (change_xid, id);
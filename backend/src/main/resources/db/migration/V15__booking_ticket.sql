@@ -0,0 +1,13 @@
+-- Tickets of the async booking pipeline, readable from every replica and across restarts.
+-- Only the node that accepted a request runs it; a ticket still PENDING past
+-- reservation.pipeline.pending-timeout-seconds was lost with that node's queue.
+CREATE TABLE booking_ticket (
+    id              UUID         PRIMARY KEY,
+    status          VARCHAR(10)  NOT NULL,
+    reservation_id  BIGINT,
+    message         TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT now(),
+    updated_at      TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_booking_ticket_updated ON booking_ticket (updated_at);
@@ -0,0 +1,9 @@
+-- Version stamp of the service catalog. POST /api/services/refresh bumps it on
+-- whichever replica receives the call; every replica polls it and reloads its
+-- in-memory catalog when it moves.
+CREATE TABLE catalog_version (
+    id       INT     PRIMARY KEY CHECK (id = 1),
+    version  BIGINT  NOT NULL
+);
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
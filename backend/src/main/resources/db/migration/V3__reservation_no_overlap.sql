@@ -0,0 +1,26 @@
+-- Enforce "no two slot-blocking bookings within the buffer" in the database
+-- so booking no longer needs SERIALIZABLE isolation.
+--
+-- Two bookings clash when |t1 - t2| <= buffer, which is exactly when the
+-- closed ranges [t, t + buffer] overlap.  The buffer comes from the Flyway
+-- placeholder bound to reservation.buffer-minutes; changing it later needs
+-- a new migration that recreates booked_slot.
+
+ALTER TABLE reservation ADD COLUMN blocks_slot BOOLEAN NOT NULL DEFAULT TRUE;
+
+UPDATE reservation r
+   SET blocks_slot = (s.code <> 'BOARD')
+  FROM service s
+ WHERE s.id = r.service_id;
+
+ALTER TABLE reservation ADD COLUMN booked_slot TSRANGE
+    GENERATED ALWAYS AS (
+        CASE WHEN blocks_slot
+             THEN tsrange(reservation_time,
+                          reservation_time + INTERVAL '${buffer-minutes} minutes',
+                          '[]')
+        END) STORED;
+
+ALTER TABLE reservation ADD CONSTRAINT reservation_no_overlap
+    EXCLUDE USING gist (booked_slot WITH &&)
+    WHERE (status = 'BOOKED');
@@ -0,0 +1,6 @@
+-- Keyset pagination walks reservations in (reservation_time, id) order.
+-- The composite index also serves every plain reservation_time range scan.
+CREATE INDEX idx_reservation_time_id ON reservation (reservation_time, id);
+DROP INDEX IF EXISTS idx_reservation_time;
+
+CREATE INDEX idx_reservation_status_time ON reservation (status, reservation_time);
@@ -0,0 +1,28 @@
+-- Monotonic change sequence for the dashboard change feed.  Every insert or
+-- update of a reservation (create, cancel, complete) stamps the row with the
+-- next value, so "what changed since N" is an index range scan.
+CREATE SEQUENCE reservation_change_seq;
+
+ALTER TABLE reservation ADD COLUMN change_seq BIGINT;
+
+UPDATE reservation r
+   SET change_seq = s.seq
+  FROM (SELECT id, nextval('reservation_change_seq') AS seq
+          FROM reservation
+         ORDER BY id) s
+ WHERE s.id = r.id;
+
+ALTER TABLE reservation ALTER COLUMN change_seq SET NOT NULL;
+
+CREATE FUNCTION reservation_stamp_change() RETURNS trigger AS $$
+BEGIN
+    NEW.change_seq := nextval('reservation_change_seq');
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER reservation_stamp_change
+    BEFORE INSERT OR UPDATE ON reservation
+    FOR EACH ROW EXECUTE FUNCTION reservation_stamp_change();
+
+CREATE INDEX idx_reservation_change_seq ON reservation (change_seq);
@@ -0,0 +1,45 @@
+-- One pet row per (normalized owner phone, normalized pet name).
+-- Normalization must match Pet#stampKeys: digits of the phone; the name with
+-- ASCII whitespace trimmed and collapsed to one space, lower-cased.
+ALTER TABLE pet
+    ADD COLUMN owner_phone_key VARCHAR(30),
+    ADD COLUMN name_key        VARCHAR(100);
+
+UPDATE pet
+SET owner_phone_key = regexp_replace(owner_phone, '[^0-9]', '', 'g'),
+    name_key        = lower(regexp_replace(btrim(name, E' \t\n\r\f' || chr(11)), '[ \t\n\r\f\v]+', ' ', 'g'));
+
+-- Merge existing duplicates: the oldest row survives with its own details,
+-- only filling an empty breed or age from the newest duplicate (the same
+-- policy as PetService#upsert); reservations are re-pointed to it and the
+-- rest are dropped.
+CREATE TEMP TABLE pet_merge ON COMMIT DROP AS
+SELECT id AS dup_id,
+       min(id) OVER (PARTITION BY owner_phone_key, name_key) AS keep_id
+FROM pet;
+
+DELETE FROM pet_merge WHERE dup_id = keep_id;
+
+UPDATE pet p
+SET breed = COALESCE(p.breed, latest.breed),
+    age   = COALESCE(p.age, latest.age)
+FROM (SELECT DISTINCT ON (owner_phone_key, name_key) *
+      FROM pet
+      ORDER BY owner_phone_key, name_key, id DESC) latest
+WHERE p.id IN (SELECT keep_id FROM pet_merge)
+  AND p.owner_phone_key = latest.owner_phone_key
+  AND p.name_key = latest.name_key;
+
+UPDATE reservation r
+SET pet_id = m.keep_id
+FROM pet_merge m
+WHERE r.pet_id = m.dup_id;
+
+DELETE FROM pet p
+USING pet_merge m
+WHERE p.id = m.dup_id;
+
+ALTER TABLE pet
+    ALTER COLUMN owner_phone_key SET NOT NULL,
+    ALTER COLUMN name_key SET NOT NULL,
+    ADD CONSTRAINT uk_pet_owner_key UNIQUE (owner_phone_key, name_key);
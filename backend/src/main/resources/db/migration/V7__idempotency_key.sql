@@ -0,0 +1,10 @@
+-- Responses of public POSTs keyed by client Idempotency-Key, shared by all replicas.
+-- A row with NULL response is a claim held by the request still executing.
+CREATE TABLE idempotency_key (
+    id           VARCHAR(150) PRIMARY KEY,   -- scope + ':' + client key
+    request_hash VARCHAR(64)  NOT NULL,
+    response     TEXT,
+    created_at   TIMESTAMP    NOT NULL DEFAULT now()
+);
+
+CREATE INDEX idx_idempotency_key_created ON idempotency_key (created_at);
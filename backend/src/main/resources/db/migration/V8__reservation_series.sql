@@ -0,0 +1,17 @@
+-- Recurring bookings: the rule lives here, each occurrence is a normal reservation row
+CREATE TABLE reservation_series (
+    id            BIGSERIAL PRIMARY KEY,
+    pet_id        BIGINT       NOT NULL REFERENCES pet(id) ON DELETE CASCADE,
+    service_id    BIGINT       NOT NULL REFERENCES service(id),
+    owner_phone   VARCHAR(32)  NOT NULL,
+    frequency     VARCHAR(20)  NOT NULL,
+    first_time    TIMESTAMP    NOT NULL,
+    occurrences   INT          NOT NULL,
+    notes         TEXT,
+    created_at    TIMESTAMP    DEFAULT now()
+);
+
+ALTER TABLE reservation ADD COLUMN series_id BIGINT REFERENCES reservation_series(id);
+
+-- series cancel touches only that series' rows
+CREATE INDEX idx_reservation_series ON reservation (series_id, reservation_time) WHERE series_id IS NOT NULL;
@@ -0,0 +1,50 @@
+-- Capacity model: a service runs on one or more stations (grooming tables,
+-- wash tubs) and each station serves one booking at a time, so a service's
+-- capacity is its number of active stations.  Bookings are assigned to a
+-- concrete station and only clash with other bookings on that station.
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+CREATE TABLE station (
+    id          BIGSERIAL    PRIMARY KEY,
+    service_id  BIGINT       NOT NULL REFERENCES service(id),
+    name        VARCHAR(60)  NOT NULL,
+    active      BOOLEAN      NOT NULL DEFAULT TRUE,
+    CONSTRAINT uk_station_name UNIQUE (service_id, name)
+);
+
+INSERT INTO station (service_id, name)
+SELECT id, 'Table 1' FROM service WHERE code = 'GROOM'
+UNION ALL
+SELECT id, 'Table 2' FROM service WHERE code = 'GROOM'
+UNION ALL
+SELECT id, 'Tub 1'   FROM service WHERE code = 'WASH';
+
+-- any other slot-blocking service keeps its old capacity of one
+INSERT INTO station (service_id, name)
+SELECT s.id, 'Station 1'
+  FROM service s
+ WHERE s.code <> 'BOARD'
+   AND NOT EXISTS (SELECT 1 FROM station st WHERE st.service_id = s.id);
+
+ALTER TABLE reservation ADD COLUMN station_id BIGINT REFERENCES station(id);
+
+-- Existing bookings never overlapped shop-wide, so putting each on its
+-- service's first station cannot create an overlap either.
+UPDATE reservation r
+   SET station_id = (SELECT min(st.id) FROM station st WHERE st.service_id = r.service_id)
+ WHERE r.blocks_slot;
+
+ALTER TABLE reservation DROP CONSTRAINT reservation_no_overlap;
+
+ALTER TABLE reservation ADD CONSTRAINT reservation_station_no_overlap
+    EXCLUDE USING gist (station_id WITH =, booked_slot WITH &&)
+    WHERE (status = 'BOOKED');
+
+-- a blocking row without a station would slip past the constraint above
+ALTER TABLE reservation ADD CONSTRAINT reservation_station_required
+    CHECK (NOT blocks_slot OR station_id IS NOT NULL);
+
+-- "which stations of this service are busy around t" is one index range scan
+CREATE INDEX idx_reservation_service_busy ON reservation (service_id, reservation_time)
+    INCLUDE (station_id)
+    WHERE status = 'BOOKED' AND blocks_slot;
@@ -1,6 +1,7 @@
 package com.example.demo.controller;
 
 import com.example.demo.model.Pet;
+import com.example.demo.service.IdempotencyStore;
 import com.example.demo.service.PetService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,11 +9,14 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -28,6 +32,9 @@ class PetControllerTest {
     @MockBean
     private PetService petService;
 
+    @MockBean
+    private IdempotencyStore idempotency;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -35,6 +42,9 @@ class PetControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(idempotency.execute(any(), anyString(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(4).get());
+
         testPet = Pet.builder()
                 .id(1L)
                 .name("Fluffy")
@@ -97,7 +107,7 @@ class PetControllerTest {
                 .ownerPhone("123-456-7890")
                 .build();
 
-        when(petService.save(any(Pet.class))).thenReturn(testPet);
+        when(petService.upsert(any(Pet.class))).thenReturn(testPet);
 
         // When & Then
         mockMvc.perform(post("/api/pets")
@@ -105,9 +115,48 @@ class PetControllerTest {
                 .content(objectMapper.writeValueAsString(newPet)))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
-                .andExpect(jsonPath("$.name").value("Fluffy"));
+                .andExpect(jsonPath("$.name").value("Fluffy"))
+                .andExpect(jsonPath("$.ownerPhoneKey").doesNotExist());
 
-        verify(petService, times(1)).save(any(Pet.class));
+        verify(petService, times(1)).upsert(any(Pet.class));
+    }
+
+    @Test
+    void testCreate_WhenPetOnFile_ShouldEchoOnlyWhatWasSent() throws Exception {
+        // Given
+        Pet sent = Pet.builder()
+                .name("Fluffy")
+                .species("Dog")
+                .ownerName("Someone Else")
+                .ownerPhone("123-456-7890")
+                .build();
+
+        when(petService.upsert(any(Pet.class))).thenReturn(testPet);
+
+        // When & Then
+        mockMvc.perform(post("/api/pets")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(sent)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.ownerName").value("Someone Else"))
+                .andExpect(jsonPath("$.breed").doesNotExist())
+                .andExpect(jsonPath("$.age").doesNotExist());
+    }
+
+    @Test
+    void testCreate_ShouldForwardIdempotencyKey() throws Exception {
+        // Given
+        when(petService.upsert(any(Pet.class))).thenReturn(testPet);
+
+        // When & Then
+        mockMvc.perform(post("/api/pets")
+                .header("Idempotency-Key", "abc-123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testPet)))
+                .andExpect(status().isOk());
+
+        verify(idempotency).execute(eq("abc-123"), eq("pet"), any(Pet.class), eq(Pet.class), any());
     }
 
     @Test
@@ -134,6 +183,19 @@ class PetControllerTest {
         verify(petService, times(1)).save(any(Pet.class));
     }
 
+    @Test
+    void testUpdate_WhenRenameCollides_ShouldReturnConflict() throws Exception {
+        // Given
+        when(petService.save(any(Pet.class)))
+                .thenThrow(new ResponseStatusException(HttpStatus.CONFLICT, "This owner already has a pet with that name"));
+
+        // When & Then
+        mockMvc.perform(put("/api/pets/1")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(testPet)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void testDelete_ShouldDeletePet() throws Exception {
         // When & Then
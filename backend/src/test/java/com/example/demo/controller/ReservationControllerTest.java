@@ -1,9 +1,18 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.ReservationChanges;
 import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationFilter;
+import com.example.demo.dto.ReservationPage;
+import com.example.demo.dto.PetReservationRequest;
 import com.example.demo.dto.ReservationRequest;
+import com.example.demo.dto.ServiceOccupancy;
 import com.example.demo.model.*;
+import com.example.demo.service.DataWatermarks;
+import com.example.demo.service.IdempotencyStore;
+import com.example.demo.service.ReservationBroadcaster;
 import com.example.demo.service.ReservationService;
+import com.example.demo.service.TransactionRetry;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,14 +21,17 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.Arrays;
 import java.util.List;
+import java.util.function.Supplier;
 
-import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -33,6 +45,18 @@ class ReservationControllerTest {
     @MockBean
     private ReservationService reservationService;
 
+    @MockBean
+    private TransactionRetry retry;
+
+    @MockBean
+    private ReservationBroadcaster broadcaster;
+
+    @MockBean
+    private DataWatermarks watermarks;
+
+    @MockBean
+    private IdempotencyStore idempotency;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -42,6 +66,11 @@ class ReservationControllerTest {
 
     @BeforeEach
     void setUp() {
+        when(retry.run(anyString(), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+        when(idempotency.execute(any(), anyString(), any(), any(), any()))
+                .thenAnswer(inv -> inv.<Supplier<?>>getArgument(4).get());
+        when(watermarks.reservationsEtag()).thenReturn("\"r42\"");
+
         testPet = Pet.builder()
                 .id(1L)
                 .name("Fluffy")
@@ -88,6 +117,45 @@ class ReservationControllerTest {
         verify(reservationService, times(1)).create(any(ReservationRequest.class));
     }
 
+    @Test
+    void testCreateWithPet_ShouldCreateReservation() throws Exception {
+        // Given
+        PetReservationRequest request = new PetReservationRequest(
+                testPet, 1L, LocalDateTime.of(2024, 1, 15, 10, 0), "Test notes");
+
+        when(reservationService.createWithPet(any(PetReservationRequest.class))).thenReturn(testReservation);
+
+        // When & Then
+        mockMvc.perform(post("/api/reservations/with-pet")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.pet.name").value(testPet.getName()));
+
+        verify(reservationService, times(1)).validate(any(PetReservationRequest.class));
+        verify(reservationService, times(1)).createWithPet(any(PetReservationRequest.class));
+    }
+
+    @Test
+    void testCreateBatch_ShouldReturnAllReservations() throws Exception {
+        // Given
+        List<ReservationRequest> requests = List.of(
+                new ReservationRequest(1L, 1L, LocalDateTime.of(2024, 1, 15, 10, 0), null),
+                new ReservationRequest(1L, 1L, LocalDateTime.of(2024, 1, 15, 12, 0), null));
+        when(reservationService.createBatch(anyList())).thenReturn(List.of(testReservation));
+
+        // When & Then
+        mockMvc.perform(post("/api/reservations/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(reservationService).validateBatch(anyList());
+        verify(reservationService).createBatch(argThat(l -> l.size() == 2));
+    }
+
     @Test
     void testGetAll_ShouldReturnListOfReservations() throws Exception {
         // Given
@@ -118,16 +186,20 @@ class ReservationControllerTest {
         // Given
         LocalDate date = LocalDate.of(2024, 1, 15);
         List<Reservation> reservations = Arrays.asList(testReservation);
-        when(reservationService.findAll()).thenReturn(reservations);
+        when(reservationService.search(any(ReservationFilter.class), isNull(), eq(200)))
+                .thenReturn(new ReservationPage<>(reservations, null));
 
         // When & Then
         mockMvc.perform(get("/api/reservations/date")
                 .param("d", "2024-01-15"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$[0].id").value(1));
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
 
-        verify(reservationService, times(1)).findAll();
+        verify(reservationService, times(1)).search(
+                eq(new ReservationFilter(date.atStartOfDay(), date.plusDays(1).atStartOfDay(), null, null, null)),
+                isNull(), eq(200));
     }
 
     @Test
@@ -176,7 +248,8 @@ class ReservationControllerTest {
     void testDashboard_ShouldReturnReservationDTOs() throws Exception {
         // Given
         List<Reservation> reservations = Arrays.asList(testReservation);
-        when(reservationService.findAll()).thenReturn(reservations);
+        when(reservationService.search(any(ReservationFilter.class), isNull(), anyInt()))
+                .thenReturn(new ReservationPage<>(reservations, "next-token"));
 
         // When & Then
         mockMvc.perform(get("/api/reservations/dashboard"))
@@ -184,16 +257,19 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].petName").value("Fluffy"))
-                .andExpect(jsonPath("$[0].ownerName").value("John Doe"));
+                .andExpect(jsonPath("$[0].ownerName").value("John Doe"))
+                .andExpect(header().string("X-Next-Cursor", "next-token"));
 
-        verify(reservationService, times(1)).findAll();
+        verify(reservationService, times(1)).search(
+                eq(new ReservationFilter(null, null, null, null, null)), isNull(), eq(200));
     }
 
     @Test
     void testDashboard_WithPhoneFilter_ShouldFilterByPhone() throws Exception {
         // Given
         List<Reservation> reservations = Arrays.asList(testReservation);
-        when(reservationService.findAll()).thenReturn(reservations);
+        when(reservationService.search(any(ReservationFilter.class), isNull(), anyInt()))
+                .thenReturn(new ReservationPage<>(reservations, null));
 
         // When & Then
         mockMvc.perform(get("/api/reservations/dashboard")
@@ -202,23 +278,114 @@ class ReservationControllerTest {
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].phone").value("123-456-7890"));
 
-        verify(reservationService, times(1)).findAll();
+        verify(reservationService, times(1)).search(
+                eq(new ReservationFilter(null, null, "123", null, null)), isNull(), eq(200));
     }
 
     @Test
     void testDashboard_WithDateFilter_ShouldFilterByDate() throws Exception {
         // Given
         List<Reservation> reservations = Arrays.asList(testReservation);
-        when(reservationService.findAll()).thenReturn(reservations);
+        when(reservationService.search(any(ReservationFilter.class), any(), anyInt()))
+                .thenReturn(new ReservationPage<>(reservations, null));
 
         // When & Then
         mockMvc.perform(get("/api/reservations/dashboard")
-                .param("date", "2024-01-15"))
+                .param("date", "2024-01-15")
+                .param("cursor", "abc")
+                .param("limit", "50"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].date").value("2024-01-15"));
 
-        verify(reservationService, times(1)).findAll();
+        verify(reservationService, times(1)).search(
+                eq(new ReservationFilter(LocalDateTime.of(2024, 1, 15, 0, 0),
+                        LocalDateTime.of(2024, 1, 16, 0, 0), null, null, null)),
+                eq("abc"), eq(50));
     }
-}
 
+    @Test
+    void testDashboardChanges_ShouldReturnDeltaWithWatermark() throws Exception {
+        // Given
+        when(reservationService.changesSince(42L, 500))
+                .thenReturn(new ReservationChanges<>(List.of(testReservation), 57L, false));
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/dashboard/changes")
+                .param("since", "42"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("BOOKED"))
+                .andExpect(jsonPath("$.watermark").value(57))
+                .andExpect(jsonPath("$.hasMore").value(false));
+
+        verify(reservationService, times(1)).changesSince(42L, 500);
+    }
+
+    @Test
+    void testDashboardChanges_WithoutSince_ShouldReturnCurrentWatermarkOnly() throws Exception {
+        // Given
+        when(reservationService.changesFromNow()).thenReturn(new ReservationChanges<>(List.of(), 900L, false));
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/dashboard/changes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.watermark").value(900));
+
+        verify(reservationService, never()).changesSince(anyLong(), anyInt());
+    }
+
+    @Test
+    void testDashboardOccupancy_ShouldReturnNightsOfTheMonth() throws Exception {
+        // Given
+        when(reservationService.occupancy(null, YearMonth.of(2024, 2)))
+                .thenReturn(new ServiceOccupancy(2L, 6, List.of(
+                        new ServiceOccupancy.Night(LocalDate.of(2024, 2, 1), 4, 2))));
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/dashboard/occupancy")
+                .param("month", "2024-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.capacity").value(6))
+                .andExpect(jsonPath("$.nights[0].date").value("2024-02-01"))
+                .andExpect(jsonPath("$.nights[0].free").value(2));
+
+        verify(reservationService, times(1)).occupancy(null, YearMonth.of(2024, 2));
+    }
+
+    @Test
+    void testDashboardStream_ShouldOpenEventStream() throws Exception {
+        // Given
+        when(broadcaster.subscribe()).thenReturn(new SseEmitter());
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/dashboard/stream"))
+                .andExpect(request().asyncStarted());
+
+        verify(broadcaster, times(1)).subscribe();
+    }
+
+    @Test
+    void testDashboard_WhenETagMatches_ShouldReturn304WithoutQuerying() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/api/reservations/dashboard")
+                .header("If-None-Match", "\"r42\""))
+                .andExpect(status().isNotModified());
+
+        verify(reservationService, never()).search(any(), any(), anyInt());
+    }
+
+    @Test
+    void testGetByPetId_WhenETagStale_ShouldReturnBodyAndNewETag() throws Exception {
+        // Given
+        when(reservationService.findByPetId(1L)).thenReturn(List.of(testReservation));
+
+        // When & Then
+        mockMvc.perform(get("/api/reservations/pet/1")
+                .header("If-None-Match", "\"r41\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"r42\""))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.ServiceOfferingDTO;
-import com.example.demo.service.ServiceOfferingService;
+import com.example.demo.dto.ServiceAvailability;
+import com.example.demo.service.AvailabilityService;
+import com.example.demo.service.ServiceCatalog;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,6 +12,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
 import java.util.List;
@@ -24,7 +29,13 @@ class ServiceOfferingControllerTest {
     private MockMvc mockMvc;
 
     @MockBean
-    private ServiceOfferingService serviceOfferingService;
+    private ServiceCatalog catalog;
+
+    @MockBean
+    private AvailabilityService availability;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     private ServiceOfferingDTO testServiceDTO;
 
@@ -41,6 +52,12 @@ class ServiceOfferingControllerTest {
         );
     }
 
+    private ServiceCatalog.Snapshot stubCatalog(List<ServiceOfferingDTO> services) {
+        var snapshot = ServiceCatalog.Snapshot.build(services, objectMapper);
+        when(catalog.snapshot()).thenReturn(snapshot);
+        return snapshot;
+    }
+
     @Test
     void testGetAll_ShouldReturnListOfServiceOfferingDTOs() throws Exception {
         // Given
@@ -55,11 +72,12 @@ class ServiceOfferingControllerTest {
         );
 
         List<ServiceOfferingDTO> services = Arrays.asList(testServiceDTO, service2);
-        when(serviceOfferingService.findAll()).thenReturn(services);
+        stubCatalog(services);
 
         // When & Then
         mockMvc.perform(get("/api/services"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType("application/json"))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value(1))
                 .andExpect(jsonPath("$[0].code").value("BATH"))
@@ -67,13 +85,13 @@ class ServiceOfferingControllerTest {
                 .andExpect(jsonPath("$[1].id").value(2))
                 .andExpect(jsonPath("$[1].code").value("GROOM"));
 
-        verify(serviceOfferingService, times(1)).findAll();
+        verify(catalog, times(1)).snapshot();
     }
 
     @Test
     void testGetById_WhenServiceExists_ShouldReturnServiceOfferingDTO() throws Exception {
         // Given
-        when(serviceOfferingService.findById(1L)).thenReturn(testServiceDTO);
+        stubCatalog(List.of(testServiceDTO));
 
         // When & Then
         mockMvc.perform(get("/api/services/1"))
@@ -82,22 +100,87 @@ class ServiceOfferingControllerTest {
                 .andExpect(jsonPath("$.code").value("BATH"))
                 .andExpect(jsonPath("$.name").value("Bath Service"))
                 .andExpect(jsonPath("$.description").value("Full bath service for pets"));
+    }
+
+    @Test
+    void testGetById_WhenServiceMissing_ShouldReturn404() throws Exception {
+        // Given
+        stubCatalog(List.of(testServiceDTO));
 
-        verify(serviceOfferingService, times(1)).findById(1L);
+        // When & Then
+        mockMvc.perform(get("/api/services/99"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
     void testGetAll_WhenEmpty_ShouldReturnEmptyList() throws Exception {
         // Given
-        when(serviceOfferingService.findAll()).thenReturn(Arrays.asList());
+        stubCatalog(Arrays.asList());
 
         // When & Then
         mockMvc.perform(get("/api/services"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void testGetAll_ShouldSendContentETag() throws Exception {
+        // Given
+        var snapshot = stubCatalog(List.of(testServiceDTO));
 
-        verify(serviceOfferingService, times(1)).findAll();
+        // When & Then
+        mockMvc.perform(get("/api/services"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", snapshot.etag()))
+                .andExpect(header().string("Cache-Control", "no-cache"));
+    }
+
+    @Test
+    void testGetAll_WhenETagMatches_ShouldReturn304() throws Exception {
+        // Given
+        var snapshot = stubCatalog(List.of(testServiceDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/services")
+                .header("If-None-Match", snapshot.etag()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void testGetById_WhenETagMatches_ShouldReturn304() throws Exception {
+        // Given
+        var snapshot = stubCatalog(List.of(testServiceDTO));
+
+        // When & Then
+        mockMvc.perform(get("/api/services/1")
+                .header("If-None-Match", snapshot.etag()))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void testRefresh_ShouldInvalidateCatalog() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/services/refresh"))
+                .andExpect(status().isNoContent());
+
+        verify(catalog, times(1)).invalidate();
     }
-}
 
+    @Test
+    void testAvailability_ShouldReturnOpenSlots() throws Exception {
+        LocalDate day = LocalDate.of(2030, 1, 7);
+        when(availability.openSlots(1L, day, day)).thenReturn(new ServiceAvailability(
+                1L, 30, List.of(LocalDateTime.of(2030, 1, 7, 9, 0), LocalDateTime.of(2030, 1, 7, 9, 30))));
+
+        mockMvc.perform(get("/api/services/1/availability")
+                        .param("from", "2030-01-07")
+                        .param("to", "2030-01-07"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.serviceId").value(1))
+                .andExpect(jsonPath("$.slotMinutes").value(30))
+                .andExpect(jsonPath("$.openSlots.length()").value(2))
+                .andExpect(jsonPath("$.openSlots[0]").value("2030-01-07T09:00:00"));
+    }
+}
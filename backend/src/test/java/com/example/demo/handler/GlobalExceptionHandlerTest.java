@@ -1,9 +1,16 @@
 package com.example.demo.handler;
 
+import com.example.demo.exception.BatchBookingException;
 import com.example.demo.exception.BookingConflictException;
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.service.AvailabilityService;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.test.web.servlet.MockMvc;
@@ -11,6 +18,10 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -22,6 +33,11 @@ class GlobalExceptionHandlerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @MockBean
+    private AvailabilityService availability;
+
+    static final LocalDateTime REQUESTED = LocalDateTime.of(2030, 1, 7, 11, 0);
+
     @RestController
     @RequestMapping("/test-exception")
     static class TestController {
@@ -30,11 +46,37 @@ class GlobalExceptionHandlerTest {
             throw new BookingConflictException("Test booking conflict");
         }
 
+        @GetMapping("/booking-conflict-with-context")
+        public void throwBookingConflictWithContext() {
+            throw new BookingConflictException("Slot taken", 2L, REQUESTED);
+        }
+
+        @GetMapping("/batch-conflict")
+        public void throwBatchConflict() {
+            throw new BatchBookingException("Some reservations overlap existing bookings", true,
+                    List.of(new BatchBookingException.ItemError(1, "Overlaps item 0 of this batch")));
+        }
+
         @GetMapping("/entity-not-found")
         public void throwEntityNotFound() {
             throw new EntityNotFoundException("Entity not found");
         }
 
+        @GetMapping("/invalid-booking")
+        public void throwInvalidBooking() {
+            throw new InvalidBookingException("Outside window");
+        }
+
+        @GetMapping("/status")
+        public void throwStatus() {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Queue full");
+        }
+
+        @GetMapping("/contention")
+        public void throwContention() {
+            throw new CannotAcquireLockException("could not serialize access");
+        }
+
         @GetMapping("/generic-exception")
         public void throwGenericException() {
             throw new RuntimeException("Generic error");
@@ -49,9 +91,44 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.status").value(409))
                 .andExpect(jsonPath("$.error").value("Conflict"))
                 .andExpect(jsonPath("$.message").value("Test booking conflict"))
+                .andExpect(jsonPath("$.alternatives").isEmpty())
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void testHandleBookingConflict_ShouldSuggestNearestFreeTimes() throws Exception {
+        // Given
+        when(availability.nearestFree(2L, REQUESTED, 3))
+                .thenReturn(List.of(REQUESTED.minusHours(1), REQUESTED.plusHours(1)));
+
+        // When & Then
+        mockMvc.perform(get("/test-exception/booking-conflict-with-context"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.message").value("Slot taken"))
+                .andExpect(jsonPath("$.alternatives.length()").value(2))
+                .andExpect(jsonPath("$.alternatives[0]").value("2030-01-07T10:00:00"));
+    }
+
+    @Test
+    void testHandleBookingConflict_WhenSuggestionsFail_ShouldStillReturn409() throws Exception {
+        // Given
+        when(availability.nearestFree(anyLong(), any(), anyInt())).thenThrow(new IllegalStateException("boom"));
+
+        // When & Then
+        mockMvc.perform(get("/test-exception/booking-conflict-with-context"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.alternatives").isEmpty());
+    }
+
+    @Test
+    void testHandleBatchConflict_ShouldReturn409WithItems() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/test-exception/batch-conflict"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.items[0].index").value(1))
+                .andExpect(jsonPath("$.items[0].message").value("Overlaps item 0 of this batch"));
+    }
+
     @Test
     void testHandleEntityNotFound_ShouldReturn404() throws Exception {
         // When & Then
@@ -63,6 +140,33 @@ class GlobalExceptionHandlerTest {
                 .andExpect(jsonPath("$.timestamp").exists());
     }
 
+    @Test
+    void testHandleInvalidBooking_ShouldReturn400() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/test-exception/invalid-booking"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400))
+                .andExpect(jsonPath("$.message").value("Outside window"));
+    }
+
+    @Test
+    void testHandleResponseStatus_ShouldKeepStatusAndReason() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/test-exception/status"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value("Queue full"));
+    }
+
+    @Test
+    void testHandleContention_ShouldReturn503() throws Exception {
+        // When & Then
+        mockMvc.perform(get("/test-exception/contention"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status").value(503))
+                .andExpect(jsonPath("$.message").value("Booking is busy right now, please try again."));
+    }
+
     @Test
     void testHandleGenericException_ShouldReturn500() throws Exception {
         // When & Then
@@ -0,0 +1,150 @@
+package com.example.demo.repo;
+
+import com.example.demo.dto.ReservationFilter;
+import com.example.demo.model.*;
+import com.example.demo.service.DataWatermarks;
+import com.example.demo.service.PetService;
+import com.example.demo.service.ReservationIndex;
+import com.example.demo.service.ReservationService;
+import com.example.demo.service.ServiceRules;
+import com.example.demo.service.SlotHolds;
+import com.example.demo.service.SlotLocks;
+import com.example.demo.service.SlotSchedule;
+import com.example.demo.service.Stations;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Listing endpoints must load reservations with their pet and service in a
+ * single statement. Runs against H2 with the schema generated from the
+ * entities, since the Flyway scripts use Postgres-only features.
+ */
+@DataJpaTest(properties = {
+    "spring.flyway.enabled=false",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "spring.jpa.properties.hibernate.generate_statistics=true"})
+@Import({ReservationService.class, PetService.class})
+class ReservationQueryCountTest {
+
+  @Autowired
+  private TestEntityManager em;
+
+  @Autowired
+  private EntityManagerFactory emf;
+
+  @Autowired
+  private ReservationRepo reservationRepo;
+
+  @Autowired
+  private ReservationService reservationService;
+
+  @MockBean
+  private ReservationIndex index;
+
+  @MockBean
+  private SlotLocks slotLocks;
+
+  @MockBean
+  private ServiceRules rules;
+
+  @MockBean
+  private SlotSchedule schedule;
+
+  @MockBean
+  private ReservationBatchInserter batchInserter;
+
+  @MockBean
+  private SlotHolds holds;
+
+  @MockBean
+  private Stations stations;
+
+  @MockBean
+  private DataWatermarks watermarks;
+
+  private Statistics stats;
+  private Pet firstPet;
+
+  @BeforeEach
+  void setUp() {
+    var groom = em.persist(ServiceOffering.builder().code("GROOM").name("Grooming").description("Groom").build());
+    var wash = em.persist(ServiceOffering.builder().code("WASH").name("Washing").description("Wash").build());
+    for (int i = 0; i < 4; i++) {
+      var pet = em.persist(Pet.builder()
+          .name("Pet" + i).species("Dog").ownerName("Owner" + i).ownerPhone("555-000" + i).build());
+      if (i == 0) {
+        firstPet = pet;
+      }
+      em.persist(Reservation.builder()
+          .pet(pet)
+          .service(i % 2 == 0 ? groom : wash)
+          .ownerPhone(pet.getOwnerPhone())
+          .reservationTime(LocalDateTime.of(2024, 1, 15, 10 + i, 0))
+          .build());
+    }
+    em.flush();
+    em.clear();
+
+    stats = emf.unwrap(SessionFactory.class).getStatistics();
+    stats.clear();
+  }
+
+  private void touchAssociations(Iterable<Reservation> rows) {
+    for (Reservation r : rows) {
+      r.getPet().getName();
+      r.getService().getDescription();
+    }
+  }
+
+  @Test
+  void testFindAll_ShouldUseSingleStatement() {
+    var rows = reservationRepo.findAll();
+    touchAssociations(rows);
+
+    assertEquals(4, rows.size());
+    assertEquals(1, stats.getPrepareStatementCount());
+  }
+
+  @Test
+  void testFindByPetId_ShouldUseSingleStatement() {
+    var rows = reservationRepo.findByPetId(firstPet.getId());
+    touchAssociations(rows);
+
+    assertEquals(1, rows.size());
+    assertEquals(1, stats.getPrepareStatementCount());
+  }
+
+  @Test
+  void testSearch_ShouldUseSingleStatement() {
+    var page = reservationService.search(
+        new ReservationFilter(null, null, "555", ReservationStatus.BOOKED, null), null, 3);
+    touchAssociations(page.items());
+
+    assertEquals(3, page.items().size());
+    assertNotNull(page.nextCursor());
+    assertEquals(1, stats.getPrepareStatementCount());
+  }
+
+  @Test
+  void testSearch_WhenPhoneHasLikeWildcards_ShouldMatchThemLiterally() {
+    var underscore = reservationService.search(
+        new ReservationFilter(null, null, "555_000", null, null), null, 10);
+    var percent = reservationService.search(
+        new ReservationFilter(null, null, "5%0", null, null), null, 10);
+
+    assertTrue(underscore.items().isEmpty());
+    assertTrue(percent.items().isEmpty());
+  }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReservationProps;
+import com.example.demo.dto.StationBooking;
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.model.ReservationStatus;
+import com.example.demo.repo.ReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityServiceTest {
+
+  @Mock
+  private ReservationRepo reservationRepo;
+
+  @Mock
+  private ServiceRules rules;
+
+  @Mock
+  private SlotHolds holds;
+
+  @Mock
+  private Stations stations;
+
+  private SlotSchedule schedule;
+  private AvailabilityService availability;
+
+  // 2030-01-07 is a Monday
+  private final LocalDate monday = LocalDate.of(2030, 1, 7);
+  private final int everyDay = 0b1111111;
+
+  @BeforeEach
+  void setUp() {
+    schedule = new SlotSchedule(reservationRepo, 60_000);
+    availability = new AvailabilityService(schedule, holds, stations, rules, new ReservationProps(30), reservationRepo, 30);
+    lenient().when(rules.forService(2L))
+        .thenReturn(new ServiceRules.Rule(2L, "GROOM", everyDay, 10 * 60, 12 * 60));
+    lenient().when(stations.of(2L)).thenReturn(List.of(1L));
+  }
+
+  @Test
+  void testOpenSlots_ShouldSkipTimesWithinBufferOfBookings() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), eq(ReservationStatus.BOOKED)))
+        .thenReturn(List.of(new StationBooking(1L, monday.atTime(11, 0))));
+
+    var result = availability.openSlots(2L, monday, monday);
+
+    assertEquals(List.of(monday.atTime(10, 0), monday.atTime(12, 0)), result.openSlots());
+  }
+
+  @Test
+  void testOpenSlots_ShouldLoadRangeWithOneQueryAndServeRepeatsFromMemory() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+
+    availability.openSlots(2L, monday, monday.plusDays(2));
+    availability.openSlots(2L, monday.plusDays(1), monday.plusDays(1));
+
+    verify(reservationRepo, times(1)).findStationBookingsBetween(
+        monday.minusDays(1).atStartOfDay(),
+        monday.plusDays(4).atStartOfDay(),
+        ReservationStatus.BOOKED);
+  }
+
+  @Test
+  void testOpenSlots_ShouldReflectBookingsWithoutReloading() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+    availability.openSlots(2L, monday, monday);
+
+    schedule.book(1L, monday.atTime(10, 0));
+    var result = availability.openSlots(2L, monday, monday);
+
+    verify(reservationRepo, times(1)).findStationBookingsBetween(any(), any(), any());
+    assertFalse(result.openSlots().contains(monday.atTime(10, 0)));
+    assertFalse(result.openSlots().contains(monday.atTime(10, 30)));
+    assertTrue(result.openSlots().contains(monday.atTime(11, 0)));
+  }
+
+  @Test
+  void testOpenSlots_WhenOneOfTwoStationsBooked_ShouldKeepTimeOpen() {
+    when(stations.of(2L)).thenReturn(List.of(1L, 2L));
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(1L, monday.atTime(11, 0)), new StationBooking(2L, monday.atTime(12, 0))));
+
+    var result = availability.openSlots(2L, monday, monday);
+
+    assertEquals(List.of(monday.atTime(10, 0), monday.atTime(10, 30), monday.atTime(11, 0), monday.atTime(12, 0)),
+        result.openSlots());
+  }
+
+  @Test
+  void testOpenSlots_ShouldHideHeldTimes() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+    when(holds.clashes(anyLong(), any(), eq(30))).thenReturn(false);
+    when(holds.clashes(1L, monday.atTime(11, 0), 30)).thenReturn(true);
+
+    var result = availability.openSlots(2L, monday, monday);
+
+    assertFalse(result.openSlots().contains(monday.atTime(11, 0)));
+    assertEquals(4, result.openSlots().size());
+  }
+
+  private static ReservationRepo.NightCount night(LocalDate night, int booked) {
+    return new ReservationRepo.NightCount() {
+      @Override
+      public LocalDate getNight() {
+        return night;
+      }
+
+      @Override
+      public int getBooked() {
+        return booked;
+      }
+    };
+  }
+
+  @Test
+  void testOpenSlots_WhenBoardingWithKennelFree_ShouldOfferCheckInTimes() {
+    when(rules.forService(4L)).thenReturn(new ServiceRules.Rule(4L, "BOARD", everyDay, 8 * 60, 9 * 60));
+    when(stations.capacity(4L)).thenReturn(6);
+    when(reservationRepo.countNightlyStays(4L, monday, monday.plusDays(1))).thenReturn(List.of(night(monday, 5)));
+
+    var result = availability.openSlots(4L, monday, monday);
+
+    assertEquals(3, result.openSlots().size());
+    verify(reservationRepo, never()).findStationBookingsBetween(any(), any(), any());
+  }
+
+  @Test
+  void testOpenSlots_WhenEveryKennelTaken_ShouldSkipThatNight() {
+    when(rules.forService(4L)).thenReturn(new ServiceRules.Rule(4L, "BOARD", everyDay, 8 * 60, 9 * 60));
+    when(stations.capacity(4L)).thenReturn(6);
+    when(reservationRepo.countNightlyStays(4L, monday, monday.plusDays(2)))
+        .thenReturn(List.of(night(monday, 6), night(monday.plusDays(1), 2)));
+
+    var result = availability.openSlots(4L, monday, monday.plusDays(1));
+
+    assertTrue(result.openSlots().stream().noneMatch(t -> t.toLocalDate().equals(monday)));
+    assertEquals(3, result.openSlots().size());
+  }
+
+  @Test
+  void testNearestFree_WhenEveryKennelTaken_ShouldSuggestNothing() {
+    when(rules.forService(4L)).thenReturn(new ServiceRules.Rule(4L, "BOARD", everyDay, 8 * 60, 9 * 60));
+    when(stations.capacity(4L)).thenReturn(6);
+    when(reservationRepo.countNightlyStays(4L, monday, monday.plusDays(1))).thenReturn(List.of(night(monday, 6)));
+
+    assertTrue(availability.nearestFree(4L, monday.atTime(8, 0), 3).isEmpty());
+  }
+
+  @Test
+  void testOpenSlots_WhenRangeTooLong_ShouldReject() {
+    assertThrows(InvalidBookingException.class,
+        () -> availability.openSlots(2L, monday, monday.plusDays(AvailabilityService.MAX_RANGE_DAYS)));
+  }
+
+  @Test
+  void testOpenSlots_WhenRangeIsExactlyMaxDays_ShouldAccept() {
+    var result = availability.openSlots(2L, monday, monday.plusDays(AvailabilityService.MAX_RANGE_DAYS - 1));
+
+    // 10:00 to 12:00 every 30 minutes, on each of the 31 days
+    assertEquals(AvailabilityService.MAX_RANGE_DAYS * 5, result.openSlots().size());
+  }
+
+  @Test
+  void testNearestFree_ShouldReturnClosestOpenStartsInTimeOrder() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(1L, monday.atTime(11, 0))));
+
+    var result = availability.nearestFree(2L, monday.atTime(11, 0), 2);
+
+    assertEquals(List.of(monday.atTime(10, 0), monday.atTime(12, 0)), result);
+  }
+
+  @Test
+  void testNearestFree_WhenDayClosed_ShouldReturnNothing() {
+    when(rules.forService(5L)).thenReturn(new ServiceRules.Rule(5L, "GROOM", 0, 10 * 60, 12 * 60));
+
+    assertTrue(availability.nearestFree(5L, monday.atTime(11, 0), 3).isEmpty());
+    verifyNoInteractions(reservationRepo);
+  }
+}
@@ -0,0 +1,158 @@
+package com.example.demo.service;
+
+import com.example.demo.config.PipelineProps;
+import com.example.demo.dto.BookingTicket;
+import com.example.demo.dto.ReservationRequest;
+import com.example.demo.exception.BookingConflictException;
+import com.example.demo.model.BookingTicketRecord;
+import com.example.demo.model.Reservation;
+import com.example.demo.repo.BookingTicketRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingPipelineTest {
+
+  @Mock
+  private ReservationService reservations;
+
+  @Mock
+  private TransactionRetry retry;
+
+  @Mock
+  private BookingTicketRepo tickets;
+
+  @Mock
+  private TransactionTemplate tx;
+
+  private BookingPipeline pipeline;
+
+  private final ReservationRequest request =
+      new ReservationRequest(1L, 1L, LocalDateTime.of(2024, 1, 15, 10, 0), null);
+
+  @BeforeEach
+  void setUp() {
+    lenient().when(retry.run(anyString(), any())).thenAnswer(inv -> inv.<Supplier<?>>getArgument(1).get());
+    lenient().when(tx.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    pipeline = new BookingPipeline(reservations, retry, new PipelineProps(true, 2, 8, 16, 30, 120), tickets, tx);
+    pipeline.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    pipeline.stop();
+  }
+
+  @Test
+  void testSubmit_WhenBooked_ShouldResolveTicketWithReservationId() {
+    when(reservations.create(request)).thenReturn(Reservation.builder().id(7L).build());
+    when(tickets.resolve(any(), eq(BookingTicket.Status.BOOKED), eq(7L), isNull(), any(),
+        eq(BookingTicket.Status.PENDING))).thenReturn(1);
+
+    var ticket = pipeline.submit(request);
+    assertEquals(BookingTicket.Status.PENDING, ticket.status());
+
+    verify(tickets).save(argThat(t -> t.getId().equals(ticket.id())
+        && t.getStatus() == BookingTicket.Status.PENDING));
+    verify(tickets, timeout(2000)).resolve(eq(ticket.id()), eq(BookingTicket.Status.BOOKED), eq(7L), isNull(), any(),
+        eq(BookingTicket.Status.PENDING));
+  }
+
+  @Test
+  void testApply_WhenTicketExpiredMeanwhile_ShouldRollBackBooking() {
+    when(reservations.create(request)).thenReturn(Reservation.builder().id(7L).build());
+    // 0 rows: a poller already turned the ticket FAILED
+    when(tickets.resolve(any(), eq(BookingTicket.Status.BOOKED), eq(7L), isNull(), any(),
+        eq(BookingTicket.Status.PENDING))).thenReturn(0);
+    var thrown = new AtomicReference<Throwable>();
+    when(tx.execute(any())).thenAnswer(inv -> {
+      try {
+        return inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+      } catch (RuntimeException ex) {
+        thrown.set(ex);
+        throw ex;
+      }
+    });
+
+    pipeline.submit(request);
+
+    // the exception leaving execute is what rolls the booking back
+    await(() -> thrown.get() != null);
+    verify(tickets, never()).resolve(any(), eq(BookingTicket.Status.FAILED), any(), any(), any(), any());
+  }
+
+  private static void await(BooleanSupplier done) {
+    for (int i = 0; i < 100 && !done.getAsBoolean(); i++) {
+      try {
+        Thread.sleep(20);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    assertTrue(done.getAsBoolean());
+  }
+
+  @Test
+  void testSubmit_WhenConflict_ShouldResolveTicketAsConflict() {
+    when(reservations.create(request)).thenThrow(new BookingConflictException("taken"));
+
+    var ticket = pipeline.submit(request);
+
+    verify(tickets, timeout(2000))
+        .resolve(eq(ticket.id()), eq(BookingTicket.Status.CONFLICT), isNull(), eq("taken"), any(),
+            eq(BookingTicket.Status.PENDING));
+  }
+
+  @Test
+  void testStatus_ShouldReadTicketStoredByAnyNode() {
+    var id = UUID.randomUUID();
+    var now = Instant.now();
+    when(tickets.findById(id)).thenReturn(Optional.of(BookingTicketRecord.builder()
+        .id(id).status(BookingTicket.Status.BOOKED).reservationId(7L).createdAt(now).updatedAt(now).build()));
+
+    var ticket = pipeline.status(id).orElseThrow();
+
+    assertEquals(BookingTicket.Status.BOOKED, ticket.status());
+    assertEquals(7L, ticket.reservationId());
+  }
+
+  @Test
+  void testStatus_WhenPendingPastTimeout_ShouldExpireTicket() {
+    var id = UUID.randomUUID();
+    var created = Instant.now().minusSeconds(600);
+    var pending = BookingTicketRecord.builder()
+        .id(id).status(BookingTicket.Status.PENDING).createdAt(created).updatedAt(created).build();
+    var failed = BookingTicketRecord.builder()
+        .id(id).status(BookingTicket.Status.FAILED).createdAt(created).updatedAt(Instant.now()).build();
+    when(tickets.findById(id)).thenReturn(Optional.of(pending)).thenReturn(Optional.of(failed));
+    when(tickets.expire(eq(id), any(), anyString(), any(), eq(BookingTicket.Status.PENDING),
+        eq(BookingTicket.Status.FAILED))).thenReturn(1);
+
+    var ticket = pipeline.status(id).orElseThrow();
+
+    assertEquals(BookingTicket.Status.FAILED, ticket.status());
+  }
+
+  @Test
+  void testStatus_WhenUnknownTicket_ShouldBeEmpty() {
+    assertTrue(pipeline.status(UUID.randomUUID()).isEmpty());
+  }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ReservationEvent;
+import com.example.demo.repo.ReservationRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DataWatermarksTest {
+
+  @Mock
+  private ReservationRepo reservationRepo;
+
+  @Mock
+  private ReservationBroadcaster broadcaster;
+
+  private DataWatermarks watermarks;
+
+  private final ReservationEvent event = new ReservationEvent(ReservationEvent.Type.CREATED, null);
+
+  @BeforeEach
+  void setUp() {
+    watermarks = new DataWatermarks(reservationRepo, broadcaster);
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    TransactionSynchronizationManager.clearSynchronization();
+  }
+
+  private static void complete(int status) {
+    for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+      s.afterCompletion(status);
+    }
+  }
+
+  @Test
+  void testOnChange_ShouldBumpOnceAfterCommitPerTransaction() {
+    when(reservationRepo.currentWatermark()).thenReturn(8L);
+
+    watermarks.onChange(event);
+    watermarks.onChange(event);
+    verify(reservationRepo, never()).bumpWatermark();
+
+    complete(TransactionSynchronization.STATUS_COMMITTED);
+
+    verify(reservationRepo, times(1)).bumpWatermark();
+    assertEquals("\"r8\"", watermarks.reservationsEtag());
+    assertFalse(TransactionSynchronizationManager.hasResource(watermarks));
+  }
+
+  @Test
+  void testOnChange_WhenRolledBack_ShouldNotBump() {
+    watermarks.onChange(event);
+
+    complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+    verify(reservationRepo, never()).bumpWatermark();
+    assertFalse(TransactionSynchronizationManager.hasResource(watermarks));
+  }
+
+  @Test
+  void testRefresh_WhenPeerBumped_ShouldResyncLocalSubscribers() {
+    when(reservationRepo.currentWatermark()).thenReturn(5L, 7L);
+
+    watermarks.refreshReservations();
+    watermarks.refreshReservations();
+
+    verify(broadcaster, times(1)).resyncAll();
+    assertEquals("\"r7\"", watermarks.reservationsEtag());
+  }
+
+  @Test
+  void testRefresh_WhenOnlyLocalBumps_ShouldNotResync() {
+    when(reservationRepo.currentWatermark()).thenReturn(5L, 6L, 6L);
+    TransactionSynchronizationManager.clearSynchronization();
+
+    watermarks.refreshReservations();
+    watermarks.onChange(event);
+    watermarks.refreshReservations();
+
+    verify(broadcaster, never()).resyncAll();
+    TransactionSynchronizationManager.initSynchronization();
+  }
+}
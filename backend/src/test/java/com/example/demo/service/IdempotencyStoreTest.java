@@ -0,0 +1,136 @@
+package com.example.demo.service;
+
+import com.example.demo.config.IdempotencyProps;
+import com.example.demo.model.IdempotencyRecord;
+import com.example.demo.model.Pet;
+import com.example.demo.repo.IdempotencyRepo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyStoreTest {
+
+  @Mock
+  private IdempotencyRepo repo;
+
+  private final ObjectMapper mapper = new ObjectMapper();
+  private IdempotencyStore store;
+
+  private final Pet pet = Pet.builder().id(5L).name("Oreo").species("Cat").ownerName("Jane").ownerPhone("555").build();
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    store = new IdempotencyStore(repo, mapper, new IdempotencyProps(24, 1000, 60));
+  }
+
+  private Pet run(String key) {
+    return store.execute(key, "pet", pet, Pet.class, () -> {
+      calls.incrementAndGet();
+      return pet;
+    });
+  }
+
+  @Test
+  void testExecute_WithoutKey_ShouldJustRun() {
+    assertSame(pet, run(null));
+    assertEquals(1, calls.get());
+    verifyNoInteractions(repo);
+  }
+
+  @Test
+  void testExecute_FirstUse_ShouldClaimRunAndStoreResponse() {
+    when(repo.claim(eq("pet:k1"), anyString())).thenReturn(1);
+
+    run("k1");
+
+    var json = ArgumentCaptor.forClass(String.class);
+    verify(repo).complete(eq("pet:k1"), json.capture());
+    assertTrue(json.getValue().contains("\"Oreo\""));
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testExecute_Replay_ShouldReturnStoredResponseWithoutRunning() throws Exception {
+    when(repo.claim(eq("pet:k1"), anyString())).thenReturn(1).thenReturn(0);
+    var stored = ArgumentCaptor.forClass(String.class);
+    var hash = ArgumentCaptor.forClass(String.class);
+    run("k1");
+    verify(repo).complete(eq("pet:k1"), stored.capture());
+    verify(repo).claim(eq("pet:k1"), hash.capture());
+    when(repo.findById("pet:k1")).thenReturn(Optional.of(
+        new IdempotencyRecord("pet:k1", hash.getValue(), stored.getValue(), LocalDateTime.now())));
+
+    Pet replayed = run("k1");
+
+    assertEquals(1, calls.get());
+    assertEquals(5L, replayed.getId());
+    assertEquals("Oreo", replayed.getName());
+  }
+
+  @Test
+  void testExecute_SameKeyDifferentBody_ShouldReject() {
+    when(repo.claim(anyString(), anyString())).thenReturn(0);
+    when(repo.findById("pet:k1")).thenReturn(Optional.of(
+        new IdempotencyRecord("pet:k1", "other-hash", "{}", LocalDateTime.now())));
+
+    var ex = assertThrows(ResponseStatusException.class, () -> run("k1"));
+    assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, ex.getStatusCode());
+    assertEquals(0, calls.get());
+  }
+
+  @Test
+  void testExecute_WhenFirstRequestStillRunning_ShouldReturn409() {
+    when(repo.claim(anyString(), anyString())).thenReturn(0);
+    when(repo.findById("pet:k1")).thenAnswer(inv -> Optional.empty());
+
+    var ex = assertThrows(ResponseStatusException.class, () -> run("k1"));
+    assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+  }
+
+  @Test
+  void testExecute_WhenActionFails_ShouldReleaseClaim() {
+    when(repo.claim(eq("pet:k1"), anyString())).thenReturn(1);
+
+    assertThrows(IllegalStateException.class, () -> store.execute("k1", "pet", pet, Pet.class, () -> {
+      throw new IllegalStateException("boom");
+    }));
+
+    verify(repo).release("pet:k1");
+    verify(repo, never()).complete(anyString(), anyString());
+  }
+
+  @Test
+  void testExecute_WhenStaleEntry_ShouldTakeOver() {
+    when(repo.claim(eq("pet:k1"), anyString())).thenReturn(0).thenReturn(1);
+    when(repo.deleteIfStale(eq("pet:k1"), any(), any())).thenReturn(1);
+
+    run("k1");
+
+    assertEquals(1, calls.get());
+    verify(repo).complete(eq("pet:k1"), anyString());
+  }
+
+  @Test
+  void testEvict_ShouldExpireAndTrim() {
+    store.evict();
+
+    verify(repo).deleteOlderThan(any(LocalDateTime.class));
+    verify(repo).trimTo(1000);
+  }
+}
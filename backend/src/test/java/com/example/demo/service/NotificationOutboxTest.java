@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NotificationProps;
+import com.example.demo.dto.ReservationDTO;
+import com.example.demo.dto.ReservationEvent;
+import com.example.demo.dto.WaitlistPromoted;
+import com.example.demo.model.NotificationChannel;
+import com.example.demo.model.NotificationKind;
+import com.example.demo.model.OutboxMessage;
+import com.example.demo.model.OutboxStatus;
+import com.example.demo.repo.OutboxRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxTest {
+
+  @Mock
+  private OutboxRepo outboxRepo;
+
+  private NotificationOutbox outbox;
+
+  @BeforeEach
+  void setUp() {
+    outbox = new NotificationOutbox(outboxRepo,
+        new NotificationProps(NotificationChannel.WECHAT, 50, 120, 8, 10, 3600));
+    // the listeners are MANDATORY: every event is published inside a transaction
+    TransactionSynchronizationManager.initSynchronization();
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  private static ReservationDTO reservation(String phone) {
+    return reservation(12L, phone, LocalDate.of(2024, 1, 15));
+  }
+
+  private static ReservationDTO reservation(long id, String phone, LocalDate date) {
+    return new ReservationDTO(id, "Fluffy", "John Doe", phone,
+        date, LocalTime.of(10, 0), null, "Dog", "BOOKED", "Bath", null);
+  }
+
+  // runs the listeners' work as the surrounding transaction commits
+  private static void commit() {
+    try {
+      for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+        s.beforeCommit(false);
+      }
+      for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+        s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+      }
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void testOnReservation_WhenCreated_ShouldQueuePendingConfirmationForOwner() {
+    // When
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CREATED, reservation("555-0001")));
+    commit();
+
+    // Then
+    var row = ArgumentCaptor.forClass(OutboxMessage.class);
+    verify(outboxRepo).save(row.capture());
+    assertEquals(NotificationKind.BOOKED, row.getValue().getKind());
+    assertEquals(NotificationChannel.WECHAT, row.getValue().getChannel());
+    assertEquals("555-0001", row.getValue().getRecipient());
+    assertEquals(OutboxStatus.PENDING, row.getValue().getStatus());
+    assertTrue(row.getValue().getBody().contains("12"));
+  }
+
+  @Test
+  void testOnReservation_WhenCanceled_ShouldQueueCancellation() {
+    // When
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CANCELED, reservation("555-0001")));
+    commit();
+
+    // Then
+    verify(outboxRepo).save(argThat(m -> m.getKind() == NotificationKind.CANCELED));
+  }
+
+  @Test
+  void testOnReservation_WhenNoPhone_ShouldQueueNothing() {
+    // When
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.COMPLETED, reservation(" ")));
+    commit();
+
+    // Then
+    verify(outboxRepo, never()).save(any());
+  }
+
+  @Test
+  void testOnWaitlistPromoted_ShouldQueueMessageForWaiter() {
+    // When
+    outbox.onWaitlistPromoted(new WaitlistPromoted(5L, 13L, "555-0002", "Biscuit", "Bath",
+        LocalDateTime.of(2024, 1, 15, 11, 0)));
+    commit();
+
+    // Then
+    verify(outboxRepo).save(argThat(m -> m.getKind() == NotificationKind.WAITLIST_PROMOTED
+        && "555-0002".equals(m.getRecipient()) && m.getReservationId() == 13L));
+  }
+
+  @Test
+  void testOnReservation_WhenSeriesBookedInOneTransaction_ShouldQueueOneSummary() {
+    // Given
+    for (int week = 0; week < 52; week++) {
+      outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CREATED,
+          reservation(100L + week, "555-0001", LocalDate.of(2024, 1, 1).plusWeeks(week))));
+    }
+    verify(outboxRepo, never()).save(any());
+
+    // When
+    commit();
+
+    // Then
+    var row = ArgumentCaptor.forClass(OutboxMessage.class);
+    verify(outboxRepo, times(1)).save(row.capture());
+    assertEquals(NotificationKind.BOOKED, row.getValue().getKind());
+    assertTrue(row.getValue().getBody().startsWith("52 bookings"));
+    assertTrue(row.getValue().getBody().contains("2024-12-23"));
+    assertFalse(TransactionSynchronizationManager.hasResource(outbox));
+  }
+
+  @Test
+  void testOnReservation_WhenSeriesCanceled_ShouldQueueOneCancellationPerOwner() {
+    // Given
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CANCELED,
+        reservation(1L, "555-0001", LocalDate.of(2024, 1, 15))));
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CANCELED,
+        reservation(2L, "555-0001", LocalDate.of(2024, 1, 22))));
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CANCELED,
+        reservation(3L, "555-0009", LocalDate.of(2024, 1, 29))));
+
+    // When
+    commit();
+
+    // Then
+    verify(outboxRepo, times(1)).save(argThat(m -> "555-0001".equals(m.getRecipient())
+        && m.getBody().startsWith("2 reservations")));
+    verify(outboxRepo, times(1)).save(argThat(m -> "555-0009".equals(m.getRecipient())
+        && m.getBody().startsWith("Reservation 3")));
+  }
+
+  @Test
+  void testOnWaitlistPromoted_ShouldReplaceBookingConfirmationForSameReservation() {
+    // Given
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CANCELED, reservation(12L, "555-0001",
+        LocalDate.of(2024, 1, 15))));
+    outbox.onReservation(new ReservationEvent(ReservationEvent.Type.CREATED, reservation(13L, "555-0002",
+        LocalDate.of(2024, 1, 15))));
+    outbox.onWaitlistPromoted(new WaitlistPromoted(5L, 13L, "555-0002", "Biscuit", "Bath",
+        LocalDateTime.of(2024, 1, 15, 10, 0)));
+
+    // When
+    commit();
+
+    // Then
+    verify(outboxRepo).save(argThat(m -> m.getKind() == NotificationKind.CANCELED));
+    verify(outboxRepo).save(argThat(m -> m.getKind() == NotificationKind.WAITLIST_PROMOTED));
+    verify(outboxRepo, never()).save(argThat(m -> m.getKind() == NotificationKind.BOOKED));
+  }
+
+  @Test
+  void testMask_ShouldKeepOnlyLastFourDigits() {
+    assertEquals("***4567", LoggingNotificationSender.mask("(555) 123-4567"));
+    assertEquals("***", LoggingNotificationSender.mask("12"));
+  }
+}
@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import com.example.demo.config.NotificationProps;
+import com.example.demo.model.NotificationChannel;
+import com.example.demo.model.NotificationKind;
+import com.example.demo.model.OutboxMessage;
+import com.example.demo.repo.OutboxRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxDispatcherTest {
+
+  @Mock
+  private OutboxRepo outboxRepo;
+
+  @Mock
+  private NotificationSender sender;
+
+  private SimpleMeterRegistry meters;
+  private OutboxDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    meters = new SimpleMeterRegistry();
+    dispatcher = new OutboxDispatcher(outboxRepo, sender,
+        new NotificationProps(NotificationChannel.SMS, 2, 120, 3, 10, 60), meters);
+  }
+
+  private static OutboxMessage message(long id, int attempts) {
+    return OutboxMessage.builder()
+        .id(id)
+        .kind(NotificationKind.BOOKED)
+        .channel(NotificationChannel.SMS)
+        .recipient("555-000" + id)
+        .body("msg " + id)
+        .attempts(attempts)
+        .build();
+  }
+
+  @Test
+  void testDispatch_ShouldClaimUntilBatchComesBackShortAndMarkSentInOneUpdate() {
+    // Given
+    when(outboxRepo.claimDue(2, 120))
+        .thenReturn(List.of(message(1, 1), message(2, 1)))
+        .thenReturn(List.of(message(3, 1)));
+
+    // When
+    dispatcher.dispatch();
+
+    // Then
+    verify(outboxRepo, times(2)).claimDue(2, 120);
+    verify(sender).send(NotificationChannel.SMS, "555-0001", "msg 1");
+    verify(outboxRepo).markSent(List.of(1L, 2L));
+    verify(outboxRepo).markSent(List.of(3L));
+    assertEquals(3, meters.counter("notifications.sent").count());
+  }
+
+  @Test
+  void testDispatch_WhenSendFails_ShouldRetryLaterWithBackoff() {
+    // Given
+    when(outboxRepo.claimDue(2, 120)).thenReturn(List.of(message(1, 1)));
+    doThrow(new IllegalStateException("gateway down"))
+        .when(sender).send(any(), eq("555-0001"), any());
+
+    // When
+    dispatcher.dispatch();
+
+    // Then
+    verify(outboxRepo).retryLater(eq(1L), longThat(d -> d >= 5 && d <= 10), eq("gateway down"));
+    verify(outboxRepo, never()).markSent(any());
+    verify(outboxRepo, never()).markFailed(anyLong(), any());
+  }
+
+  @Test
+  void testDispatch_WhenAttemptsExhausted_ShouldParkAsFailed() {
+    // Given
+    when(outboxRepo.claimDue(2, 120)).thenReturn(List.of(message(1, 3)));
+    doThrow(new IllegalStateException("bad number")).when(sender).send(any(), any(), any());
+
+    // When
+    dispatcher.dispatch();
+
+    // Then
+    verify(outboxRepo).markFailed(1L, "bad number");
+    verify(outboxRepo, never()).retryLater(anyLong(), anyLong(), any());
+    assertEquals(1, meters.counter("notifications.failed").count());
+  }
+
+  @Test
+  void testBackoffSeconds_ShouldGrowAndStayUnderCap() {
+    for (int attempt = 1; attempt <= 10; attempt++) {
+      long cap = Math.min(60, 10L << (attempt - 1));
+      long delay = dispatcher.backoffSeconds(attempt);
+      assertTrue(delay >= cap / 2 && delay <= cap, "attempt " + attempt + " gave " + delay);
+    }
+  }
+}
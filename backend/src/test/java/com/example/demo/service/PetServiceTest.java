@@ -8,7 +8,11 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.SQLException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +27,9 @@ class PetServiceTest {
   @Mock
   private PetRepo petRepo;
 
+  @Mock
+  private DataWatermarks watermarks;
+
   @InjectMocks
   private PetService petService;
 
@@ -51,7 +58,7 @@ class PetServiceTest {
         .ownerPhone("123-456-7890")
         .build();
 
-    when(petRepo.save(any(Pet.class))).thenReturn(testPet);
+    when(petRepo.saveAndFlush(any(Pet.class))).thenReturn(testPet);
 
     // When
     Pet result = petService.save(newPet);
@@ -60,7 +67,8 @@ class PetServiceTest {
     assertNotNull(result);
     assertEquals(1L, result.getId());
     assertEquals("Fluffy", result.getName());
-    verify(petRepo, times(1)).save(newPet);
+    verify(petRepo, times(1)).saveAndFlush(newPet);
+    verify(watermarks, times(1)).markChanged();
   }
 
   @Test
@@ -121,4 +129,97 @@ class PetServiceTest {
     // Then
     verify(petRepo, times(1)).deleteById(1L);
   }
+
+  @Test
+  void testSave_WhenRenameCollides_ShouldReturnConflict() {
+    // Given
+    var duplicate = new SQLException("duplicate key value violates unique constraint \"uk_pet_owner_key\"", "23505");
+    when(petRepo.saveAndFlush(any(Pet.class))).thenThrow(new DataIntegrityViolationException("uk_pet_owner_key", duplicate));
+
+    // When
+    var ex = assertThrows(ResponseStatusException.class, () -> petService.save(testPet));
+
+    // Then
+    assertEquals(HttpStatus.CONFLICT, ex.getStatusCode());
+  }
+
+  @Test
+  void testUpsert_WhenPetOnFile_ShouldKeepStoredDetails() {
+    // Given
+    Pet incoming = Pet.builder()
+        .name("  fluffy ")
+        .species("Cat")
+        .breed("Poodle")
+        .age(4)
+        .ownerName("Mallory")
+        .ownerPhone("(123) 456-7890")
+        .build();
+    when(petRepo.findByOwnerPhoneKeyAndNameKey("1234567890", "fluffy")).thenReturn(Optional.of(testPet));
+
+    // When
+    Pet result = petService.upsert(incoming);
+
+    // Then
+    assertSame(testPet, result);
+    assertEquals("Dog", result.getSpecies());
+    assertEquals("Golden Retriever", result.getBreed());
+    assertEquals(3, result.getAge());
+    assertEquals("John Doe", result.getOwnerName());
+    assertEquals("123-456-7890", result.getOwnerPhone());
+    verify(petRepo, never()).insertIfAbsent(any());
+    verify(watermarks, never()).markChanged();
+  }
+
+  @Test
+  void testUpsert_WhenStoredFieldsEmpty_ShouldFillThemOnly() {
+    // Given
+    testPet.setBreed(null);
+    testPet.setAge(null);
+    Pet incoming = Pet.builder()
+        .name("Fluffy")
+        .species("Dog")
+        .breed("Poodle")
+        .age(4)
+        .ownerName("John Doe")
+        .ownerPhone("123-456-7890")
+        .build();
+    when(petRepo.findByOwnerPhoneKeyAndNameKey("1234567890", "fluffy")).thenReturn(Optional.of(testPet));
+
+    // When
+    Pet result = petService.upsert(incoming);
+
+    // Then
+    assertEquals("Poodle", result.getBreed());
+    assertEquals(4, result.getAge());
+    verify(watermarks, times(1)).markChanged();
+  }
+
+  @Test
+  void testUpsert_WhenNewPet_ShouldInsertThenResolve() {
+    // Given
+    Pet incoming = Pet.builder()
+        .name("Oreo")
+        .species("Cat")
+        .ownerName("Jane")
+        .ownerPhone("555-0100")
+        .build();
+    Pet stored = Pet.builder().id(7L).name("Oreo").species("Cat").ownerName("Jane").ownerPhone("555-0100").build();
+    when(petRepo.findByOwnerPhoneKeyAndNameKey("5550100", "oreo"))
+        .thenReturn(Optional.empty())
+        .thenReturn(Optional.of(stored));
+
+    // When
+    Pet result = petService.upsert(incoming);
+
+    // Then
+    assertEquals(7L, result.getId());
+    verify(petRepo, times(1)).insertIfAbsent(incoming);
+  }
+
+  @Test
+  void testNameKey_ShouldCollapseAsciiWhitespaceOnlyLikeMigration() {
+    // When & Then
+    assertEquals("oreo the cat", Pet.nameKey("  Oreo \t the\n Cat "));
+    assertEquals("\u00A0oreo", Pet.nameKey("\u00A0Oreo"));
+  }
 }
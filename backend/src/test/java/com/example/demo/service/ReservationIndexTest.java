@@ -0,0 +1,83 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StationBooking;
+import com.example.demo.repo.ReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationIndexTest {
+
+  @Mock
+  private ReservationRepo reservationRepo;
+
+  @InjectMocks
+  private ReservationIndex index;
+
+  private final LocalDateTime tenAm = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+  @BeforeEach
+  void setUp() {
+    index.reload(List.of(new StationBooking(1L, tenAm)));
+  }
+
+  @Test
+  void testClashes_WithinBuffer_ShouldReturnTrue() {
+    assertTrue(index.clashes(1L, tenAm.plusMinutes(29), 30));
+    assertTrue(index.clashes(1L, tenAm.minusMinutes(30), 30));
+  }
+
+  @Test
+  void testClashes_OutsideBuffer_ShouldReturnFalse() {
+    assertFalse(index.clashes(1L, tenAm.plusMinutes(31), 30));
+    assertFalse(index.clashes(1L, tenAm.plusDays(1), 30));
+  }
+
+  @Test
+  void testClashes_AcrossMidnight_ShouldCheckNeighbouringDay() {
+    index.reload(List.of(new StationBooking(1L, LocalDateTime.of(2024, 1, 15, 23, 50))));
+
+    assertTrue(index.clashes(1L, LocalDateTime.of(2024, 1, 16, 0, 10), 30));
+  }
+
+  @Test
+  void testTryReserve_ShouldRecordBookingAndRejectSecond() {
+    LocalDateTime twoPm = tenAm.withHour(14);
+
+    assertTrue(index.tryReserve(1L, twoPm, 30));
+    assertFalse(index.tryReserve(1L, twoPm.plusMinutes(15), 30));
+  }
+
+  @Test
+  void testClashes_OtherStation_ShouldNotSeeBooking() {
+    assertFalse(index.clashes(2L, tenAm, 30));
+    assertTrue(index.tryReserve(2L, tenAm.plusMinutes(10), 30));
+  }
+
+  @Test
+  void testRelease_ShouldFreeSlot() {
+    index.release(1L, tenAm);
+
+    assertFalse(index.clashes(1L, tenAm, 30));
+    assertTrue(index.tryReserve(1L, tenAm, 30));
+  }
+
+  @Test
+  void testEvictBefore_ShouldDropOnlyEarlierDays() {
+    index.tryReserve(1L, tenAm.plusDays(1), 30);
+
+    assertEquals(1, index.evictBefore(tenAm.toLocalDate().plusDays(1)));
+
+    assertFalse(index.clashes(1L, tenAm, 30));
+    assertTrue(index.clashes(1L, tenAm.plusDays(1), 30));
+  }
+}
@@ -1,21 +1,44 @@
 package com.example.demo.service;
 
 import com.example.demo.config.ReservationProps;
+import com.example.demo.dto.PetReservationRequest;
+import com.example.demo.dto.ReservationChanges;
+import com.example.demo.dto.ReservationCursor;
+import com.example.demo.dto.ReservationEvent;
+import com.example.demo.dto.ReservationFilter;
+import com.example.demo.dto.ReservationPage;
 import com.example.demo.dto.ReservationRequest;
+import com.example.demo.dto.SeriesRequest;
+import com.example.demo.dto.StationBooking;
+import com.example.demo.dto.WaitlistPromoted;
+import com.example.demo.exception.BatchBookingException;
 import com.example.demo.exception.BookingConflictException;
+import com.example.demo.exception.InvalidBookingException;
 import com.example.demo.model.*;
 import com.example.demo.repo.*;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,12 +54,45 @@ class ReservationServiceTest {
   @Mock
   private PetRepo petRepo;
 
+  @Mock
+  private PetService petService;
+
   @Mock
   private ServiceOfferingRepo serviceRepo;
 
   @Mock
   private ReservationProps props;
 
+  @Mock
+  private ReservationIndex index;
+
+  @Mock
+  private SlotLocks slotLocks;
+
+  @Mock
+  private ApplicationEventPublisher events;
+
+  @Mock
+  private ServiceRules rules;
+
+  @Mock
+  private SlotSchedule schedule;
+
+  @Mock
+  private ReservationBatchInserter batchInserter;
+
+  @Mock
+  private ReservationSeriesRepo seriesRepo;
+
+  @Mock
+  private SlotHolds holds;
+
+  @Mock
+  private Stations stations;
+
+  @Mock
+  private WaitlistRepo waitlistRepo;
+
   @InjectMocks
   private ReservationService reservationService;
 
@@ -80,11 +136,17 @@ class ReservationServiceTest {
         .reservationTime(reservationTime)
         .ownerPhone("123-456-7890")
         .status(ReservationStatus.BOOKED)
+        .stationId(7L)
         .notes("Test notes")
         .build();
 
     // Use lenient stubbing to avoid unnecessary stubbing exceptions
     lenient().when(props.bufferMinutes()).thenReturn(30);
+    lenient().when(index.tryReserve(anyLong(), any(LocalDateTime.class), anyInt())).thenReturn(true);
+    lenient().when(stations.of(1L)).thenReturn(List.of(7L));
+    lenient().when(stations.of(2L)).thenReturn(List.of(21L, 22L));
+    lenient().when(rules.forService(1L)).thenReturn(new ServiceRules.Rule(1L, "BATH", 0x7F, 0, 1440));
+    lenient().when(rules.forService(2L)).thenReturn(new ServiceRules.Rule(2L, "BOARD", 0x7F, 0, 1440));
   }
 
   @Test
@@ -92,10 +154,7 @@ class ReservationServiceTest {
     // Given
     when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
     when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
-    when(reservationRepo.existsByReservationTimeBetweenAndStatusAndService_CodeNot(
-        any(LocalDateTime.class), any(LocalDateTime.class), eq(ReservationStatus.BOOKED), eq("BOARD")))
-        .thenReturn(false);
-    when(reservationRepo.save(any(Reservation.class))).thenReturn(testReservation);
+    when(reservationRepo.saveAndFlush(any(Reservation.class))).thenReturn(testReservation);
 
     // When
     Reservation result = reservationService.create(testRequest);
@@ -108,41 +167,467 @@ class ReservationServiceTest {
     assertEquals(testService, result.getService());
     verify(petRepo, times(1)).findById(1L);
     verify(serviceRepo, times(1)).findById(1L);
-    verify(reservationRepo, times(1)).save(any(Reservation.class));
+    verify(slotLocks, times(1)).lock(1L, testRequest.reservationTime(), 30);
+    verify(reservationRepo, times(1)).saveAndFlush(argThat(r -> Long.valueOf(7L).equals(r.getStationId())));
+    verify(schedule, times(1)).book(7L, testRequest.reservationTime());
+    verify(events, times(1)).publishEvent(
+        argThat((Object e) -> e instanceof ReservationEvent re && re.type() == ReservationEvent.Type.CREATED));
+  }
+
+  @Test
+  void testCreate_WhenFirstStationBusy_ShouldAssignNextStation() {
+    // Given: two grooming tables, the first one already booked nearby
+    when(stations.of(1L)).thenReturn(List.of(7L, 8L));
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(reservationRepo.findBusyStations(eq(1L), any(), any(), eq(ReservationStatus.BOOKED))).thenReturn(List.of(7L));
+    when(reservationRepo.saveAndFlush(any(Reservation.class))).thenReturn(testReservation);
+
+    // When
+    reservationService.create(testRequest);
+
+    // Then
+    verify(reservationRepo).findBusyStations(1L, testRequest.reservationTime().minusMinutes(30),
+        testRequest.reservationTime().plusMinutes(30), ReservationStatus.BOOKED);
+    verify(index, never()).tryReserve(eq(7L), any(), anyInt());
+    verify(reservationRepo).saveAndFlush(argThat(r -> Long.valueOf(8L).equals(r.getStationId())));
+  }
+
+  @Test
+  void testCreate_WhenEveryStationBusy_ShouldThrowConflictWithoutInsert() {
+    // Given
+    when(stations.of(1L)).thenReturn(List.of(7L, 8L));
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(reservationRepo.findBusyStations(eq(1L), any(), any(), any())).thenReturn(List.of(8L, 7L));
+
+    // When & Then
+    assertThrows(BookingConflictException.class, () -> reservationService.create(testRequest));
+    verify(index, never()).tryReserve(anyLong(), any(), anyInt());
+    verify(reservationRepo, never()).saveAndFlush(any());
   }
 
   @Test
-  void testCreate_WhenConflictExists_ShouldThrowBookingConflictException() {
+  void testCreate_WhenNodeKnowsEveryStationTaken_ShouldRejectWithoutLockOrQuery() {
     // Given
     when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
     when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
-    when(reservationRepo.existsByReservationTimeBetweenAndStatusAndService_CodeNot(
-        any(LocalDateTime.class), any(LocalDateTime.class), eq(ReservationStatus.BOOKED), eq("BOARD")))
-        .thenReturn(true);
+    when(index.clashes(7L, testRequest.reservationTime(), 30)).thenReturn(true);
 
     // When & Then
     assertThrows(BookingConflictException.class, () -> reservationService.create(testRequest));
-    verify(reservationRepo, never()).save(any(Reservation.class));
+    verifyNoInteractions(slotLocks);
+    verify(reservationRepo, never()).findBusyStations(any(), any(), any(), any());
+  }
+
+  @Test
+  void testCreateWithPet_WhenNoConflict_ShouldSavePetAndReservation() {
+    // Given
+    var newPet = Pet.builder().name("Fluffy").species("Dog").ownerName("John Doe").ownerPhone("123-456-7890").build();
+    var request = new PetReservationRequest(newPet, 1L, testRequest.reservationTime(), "Test notes");
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(petService.upsert(newPet)).thenReturn(testPet);
+    when(reservationRepo.saveAndFlush(any(Reservation.class))).thenReturn(testReservation);
+
+    // When
+    Reservation result = reservationService.createWithPet(request);
+
+    // Then
+    assertEquals(1L, result.getId());
+    var order = inOrder(slotLocks, petService, reservationRepo);
+    order.verify(slotLocks).lock(1L, testRequest.reservationTime(), 30);
+    order.verify(petService).upsert(newPet);
+    order.verify(reservationRepo).saveAndFlush(argThat(r -> r.getPet() == testPet));
+  }
+
+  @Test
+  void testCreateWithPet_WhenSlotTaken_ShouldNotSavePet() {
+    // Given
+    var newPet = Pet.builder().name("Fluffy").species("Dog").ownerName("John Doe").ownerPhone("123-456-7890").build();
+    var request = new PetReservationRequest(newPet, 1L, testRequest.reservationTime(), null);
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(index.tryReserve(anyLong(), any(LocalDateTime.class), anyInt())).thenReturn(false);
+
+    // When & Then
+    assertThrows(BookingConflictException.class, () -> reservationService.createWithPet(request));
+    verify(petService, never()).upsert(any());
+    verify(reservationRepo, never()).saveAndFlush(any());
   }
 
   @Test
-  void testCreate_WhenBoardingService_ShouldNotCheckConflict() {
+  void testCreateBatch_WhenNoConflicts_ShouldInsertAllInOneBatch() {
+    // Given
+    var second = new ReservationRequest(1L, 1L, testRequest.reservationTime().plusHours(2), null);
+    when(petRepo.findAllById(any())).thenReturn(List.of(testPet));
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(testService));
+    when(reservationRepo.findStationBookingsBetween(any(), any(), eq(ReservationStatus.BOOKED))).thenReturn(List.of());
+    when(batchInserter.insert(anyList())).thenReturn(List.of(11L, 12L));
+    var r11 = Reservation.builder().id(11L).pet(testPet).service(testService)
+        .reservationTime(testRequest.reservationTime()).build();
+    var r12 = Reservation.builder().id(12L).pet(testPet).service(testService)
+        .reservationTime(second.reservationTime()).build();
+    when(reservationRepo.findAllById(List.of(11L, 12L))).thenReturn(List.of(r12, r11));
+
+    // When
+    List<Reservation> result = reservationService.createBatch(List.of(testRequest, second));
+
+    // Then
+    assertEquals(List.of(r11, r12), result);
+    verify(slotLocks).lockAll(Map.of(1L, List.of(testRequest.reservationTime(), second.reservationTime())), 30);
+    verify(reservationRepo, times(1)).findStationBookingsBetween(any(), any(), any());
+    verify(batchInserter, times(1)).insert(argThat(rows -> rows.size() == 2));
+    verify(events, times(2)).publishEvent(any(Object.class));
+  }
+
+  @Test
+  void testCreateBatch_WhenItemsClash_ShouldReportEveryItemAndInsertNothing() {
+    // Given: item 1 overlaps item 0, item 2 overlaps an existing booking
+    var clashing = new ReservationRequest(1L, 1L, testRequest.reservationTime().plusMinutes(15), null);
+    var taken = new ReservationRequest(1L, 1L, testRequest.reservationTime().plusHours(3), null);
+    when(petRepo.findAllById(any())).thenReturn(List.of(testPet));
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(testService));
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(7L, taken.reservationTime().plusMinutes(30))));
+
+    // When
+    var ex = assertThrows(BatchBookingException.class,
+        () -> reservationService.createBatch(List.of(testRequest, clashing, taken)));
+
+    // Then
+    assertTrue(ex.isConflict());
+    assertEquals(List.of(1, 2), ex.getItems().stream().map(BatchBookingException.ItemError::index).toList());
+    verifyNoInteractions(batchInserter);
+  }
+
+  @Test
+  void testCreateBatch_WhenItemsOverlap_ShouldSpreadThemOverStations() {
+    // Given: two tables; item 1 overlaps item 0, item 2 overlaps both
+    when(stations.of(1L)).thenReturn(List.of(7L, 8L));
+    var overlapping = new ReservationRequest(1L, 1L, testRequest.reservationTime().plusMinutes(15), null);
+    var third = new ReservationRequest(1L, 1L, testRequest.reservationTime().plusMinutes(20), null);
+    when(petRepo.findAllById(any())).thenReturn(List.of(testPet));
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(testService));
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+
+    // When
+    var ex = assertThrows(BatchBookingException.class,
+        () -> reservationService.createBatch(List.of(testRequest, overlapping, third)));
+
+    // Then: only the third finds no free table
+    assertEquals(List.of(2), ex.getItems().stream().map(BatchBookingException.ItemError::index).toList());
+    assertEquals("Overlaps item 0 of this batch", ex.getItems().get(0).message());
+  }
+
+  @Test
+  void testCreateBatch_WhenCapacityAllows_ShouldAssignDistinctStations() {
+    // Given
+    when(stations.of(1L)).thenReturn(List.of(7L, 8L));
+    var overlapping = new ReservationRequest(1L, 1L, testRequest.reservationTime().plusMinutes(15), null);
+    when(petRepo.findAllById(any())).thenReturn(List.of(testPet));
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(testService));
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(7L, testRequest.reservationTime().minusHours(1))));
+    when(batchInserter.insert(anyList())).thenReturn(List.of(31L, 32L));
+    when(reservationRepo.findAllById(any())).thenReturn(List.of(
+        Reservation.builder().id(31L).pet(testPet).service(testService).stationId(7L)
+            .reservationTime(testRequest.reservationTime()).build(),
+        Reservation.builder().id(32L).pet(testPet).service(testService).stationId(8L)
+            .reservationTime(overlapping.reservationTime()).build()));
+
+    // When
+    reservationService.createBatch(List.of(testRequest, overlapping));
+
+    // Then
+    verify(batchInserter).insert(argThat(rows -> Long.valueOf(7L).equals(rows.get(0).getStationId())
+        && Long.valueOf(8L).equals(rows.get(1).getStationId())));
+    verify(schedule).book(8L, overlapping.reservationTime());
+  }
+
+  @Test
+  void testCreateBatch_WhenPetUnknown_ShouldRejectAsInvalid() {
+    // Given
+    when(petRepo.findAllById(any())).thenReturn(List.of());
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(testService));
+
+    // When
+    var ex = assertThrows(BatchBookingException.class, () -> reservationService.createBatch(List.of(testRequest)));
+
+    // Then
+    assertFalse(ex.isConflict());
+    assertEquals(0, ex.getItems().get(0).index());
+  }
+
+  @Test
+  void testValidateBatch_WhenTooLarge_ShouldReject() {
+    var reqs = Collections.nCopies(ReservationService.MAX_BATCH_SIZE + 1, testRequest);
+    assertThrows(InvalidBookingException.class, () -> reservationService.validateBatch(reqs));
+  }
+
+  @Test
+  void testCreateSeries_ShouldExpandRuleAndInsertOccurrencesInOneBatch() {
+    // Given: biweekly, three times
+    var req = new SeriesRequest(1L, 1L, testRequest.reservationTime(), SeriesFrequency.BIWEEKLY, 3, null, null);
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(seriesRepo.save(any(ReservationSeries.class))).thenAnswer(inv -> {
+      ReservationSeries s = inv.getArgument(0);
+      s.setId(9L);
+      return s;
+    });
+    when(petRepo.findAllById(any())).thenReturn(List.of(testPet));
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(testService));
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+    when(batchInserter.insert(anyList())).thenReturn(List.of(21L, 22L, 23L));
+    when(reservationRepo.findAllById(any())).thenReturn(List.of(
+        Reservation.builder().id(21L).pet(testPet).service(testService).reservationTime(testRequest.reservationTime()).build(),
+        Reservation.builder().id(22L).pet(testPet).service(testService).reservationTime(testRequest.reservationTime().plusWeeks(2)).build(),
+        Reservation.builder().id(23L).pet(testPet).service(testService).reservationTime(testRequest.reservationTime().plusWeeks(4)).build()));
+
+    // When
+    List<Reservation> result = reservationService.createSeries(req);
+
+    // Then
+    assertEquals(3, result.size());
+    verify(rules).check(1L, testRequest.reservationTime().plusWeeks(4));
+    verify(reservationRepo, times(1)).findStationBookingsBetween(any(), any(), any());
+    verify(batchInserter).insert(argThat(rows -> rows.size() == 3
+        && rows.stream().allMatch(r -> Long.valueOf(9L).equals(r.getSeriesId()))
+        && rows.get(2).getReservationTime().equals(testRequest.reservationTime().plusWeeks(4))));
+  }
+
+  @Test
+  void testCreateSeries_WhenNeitherCountNorUntil_ShouldReject() {
+    var req = new SeriesRequest(1L, 1L, testRequest.reservationTime(), SeriesFrequency.WEEKLY, null, null, null);
+    assertThrows(InvalidBookingException.class, () -> reservationService.createSeries(req));
+    verifyNoInteractions(seriesRepo, batchInserter);
+  }
+
+  @Test
+  void testCreateSeries_WhenUntilTooFar_ShouldReject() {
+    var req = new SeriesRequest(1L, 1L, testRequest.reservationTime(), SeriesFrequency.WEEKLY, null,
+        testRequest.reservationTime().toLocalDate().plusYears(2), null);
+    assertThrows(InvalidBookingException.class, () -> reservationService.createSeries(req));
+  }
+
+  @Test
+  void testCancelSeries_ShouldUpdateOnceAndReleaseEachSlot() {
+    // Given
+    when(seriesRepo.findById(9L)).thenReturn(Optional.of(
+        ReservationSeries.builder().id(9L).ownerPhone("123-456-7890").build()));
+    when(reservationRepo.cancelUpcomingInSeries(eq(9L), any())).thenReturn(List.of(1L));
+    testReservation.setStatus(ReservationStatus.CANCELED);
+    when(reservationRepo.findByIdIn(List.of(1L))).thenReturn(List.of(testReservation));
+
+    // When
+    int canceled = reservationService.cancelSeries(9L, "123-456-7890");
+
+    // Then
+    assertEquals(1, canceled);
+    verify(reservationRepo, never()).findByIdWithLock(anyLong());
+    verify(index).release(7L, testReservation.getReservationTime());
+    verify(events).publishEvent(
+        argThat((Object e) -> e instanceof ReservationEvent re && re.type() == ReservationEvent.Type.CANCELED));
+  }
+
+  @Test
+  void testCancelSeries_WhenPhoneDiffers_ShouldReject() {
+    when(seriesRepo.findById(9L)).thenReturn(Optional.of(
+        ReservationSeries.builder().id(9L).ownerPhone("123-456-7890").build()));
+
+    assertThrows(IllegalArgumentException.class, () -> reservationService.cancelSeries(9L, "wrong"));
+    verify(reservationRepo, never()).cancelUpcomingInSeries(anyLong(), any());
+  }
+
+  @Test
+  void testCreate_WithValidHold_ShouldSkipSlotLockAndConsumeHold() {
+    // Given
+    var held = new ReservationRequest(1L, 1L, testRequest.reservationTime(), null, "tok");
+    when(holds.isHeld("tok", 1L, held.reservationTime())).thenReturn(true);
+    when(holds.stationOf("tok")).thenReturn(8L);
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(reservationRepo.saveAndFlush(any(Reservation.class))).thenReturn(testReservation);
+
+    // When
+    reservationService.create(held);
+
+    // Then
+    verify(slotLocks, never()).lock(anyLong(), any(), anyInt());
+    verify(holds, never()).clashes(anyLong(), any(), anyInt());
+    verify(reservationRepo).saveAndFlush(argThat(r -> Long.valueOf(8L).equals(r.getStationId())));
+    verify(holds).release("tok");
+  }
+
+  @Test
+  void testCreate_WhenSomeoneElseHoldsTheSlot_ShouldThrowConflict() {
+    // Given
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(holds.clashes(7L, testRequest.reservationTime(), 30)).thenReturn(true);
+
+    // When & Then
+    assertThrows(BookingConflictException.class, () -> reservationService.create(testRequest));
+    verify(reservationRepo, never()).saveAndFlush(any());
+  }
+
+  @Test
+  void testCreate_WhenOverlapConstraintFires_ShouldThrowBookingConflictException() {
+    // Given
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(reservationRepo.saveAndFlush(any(Reservation.class)))
+        .thenThrow(new DataIntegrityViolationException("overlap",
+            new SQLException("conflicting key value violates exclusion constraint", "23P01")));
+
+    // When & Then
+    assertThrows(BookingConflictException.class, () -> reservationService.create(testRequest));
+  }
+
+  @Test
+  void testCreate_WhenOtherIntegrityViolation_ShouldRethrow() {
+    // Given
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(reservationRepo.saveAndFlush(any(Reservation.class)))
+        .thenThrow(new DataIntegrityViolationException("fk",
+            new SQLException("violates foreign key constraint", "23503")));
+
+    // When & Then
+    assertThrows(DataIntegrityViolationException.class, () -> reservationService.create(testRequest));
+  }
+
+  @Test
+  void testCreate_WhenIndexReportsClash_ShouldThrowWithoutInsert() {
+    // Given
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(1L)).thenReturn(Optional.of(testService));
+    when(index.tryReserve(anyLong(), any(LocalDateTime.class), anyInt())).thenReturn(false);
+
+    // When & Then
+    assertThrows(BookingConflictException.class, () -> reservationService.create(testRequest));
+    verify(reservationRepo, never()).saveAndFlush(any(Reservation.class));
+  }
+
+  @Test
+  void testCreate_WhenBoardingStay_ShouldLockNightsAndTakeFirstFreeKennel() {
     // Given
     ReservationRequest boardingRequest = new ReservationRequest(1L, 2L,
-        LocalDateTime.of(2024, 1, 15, 10, 0), "Boarding notes");
+        LocalDateTime.of(2024, 1, 15, 10, 0), "Boarding notes", null, LocalDate.of(2024, 1, 17));
 
     when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
     when(serviceRepo.findById(2L)).thenReturn(Optional.of(boardingService));
-    when(reservationRepo.save(any(Reservation.class))).thenReturn(testReservation);
+    when(reservationRepo.findBusyKennels(2L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17)))
+        .thenReturn(List.of(21L));
+    when(reservationRepo.saveAndFlush(any(Reservation.class))).thenReturn(testReservation);
 
     // When
     Reservation result = reservationService.create(boardingRequest);
 
     // Then
     assertNotNull(result);
-    verify(reservationRepo, never()).existsByReservationTimeBetweenAndStatusAndService_CodeNot(
-        any(), any(), any(), any());
-    verify(reservationRepo, times(1)).save(any(Reservation.class));
+    verify(slotLocks).lockNights(2L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 17));
+    verify(index, never()).tryReserve(anyLong(), any(), anyInt());
+    verify(slotLocks, never()).lock(anyLong(), any(), anyInt());
+    verify(reservationRepo, times(1)).saveAndFlush(argThat(r -> !r.isBlocksSlot()
+        && r.getStationId() == 22L && LocalDate.of(2024, 1, 17).equals(r.getCheckOut())));
+  }
+
+  @Test
+  void testCreate_WhenEveryKennelTakenOnSomeNight_ShouldThrowConflictWithoutInsert() {
+    // Given
+    ReservationRequest boardingRequest = new ReservationRequest(1L, 2L,
+        LocalDateTime.of(2024, 1, 15, 10, 0), null, null, LocalDate.of(2024, 1, 20));
+
+    when(petRepo.findById(1L)).thenReturn(Optional.of(testPet));
+    when(serviceRepo.findById(2L)).thenReturn(Optional.of(boardingService));
+    when(reservationRepo.findBusyKennels(eq(2L), any(), any())).thenReturn(List.of(22L, 21L));
+
+    // When & Then
+    assertThrows(BookingConflictException.class, () -> reservationService.create(boardingRequest));
+    verify(reservationRepo, never()).saveAndFlush(any(Reservation.class));
+  }
+
+  @Test
+  void testCreate_WhenBoardingWithoutCheckOut_ShouldRejectBeforeAnyLookup() {
+    // Given
+    ReservationRequest boardingRequest = new ReservationRequest(1L, 2L,
+        LocalDateTime.of(2024, 1, 15, 10, 0), null);
+
+    // When & Then
+    assertThrows(InvalidBookingException.class, () -> reservationService.create(boardingRequest));
+    verifyNoInteractions(petRepo, serviceRepo, reservationRepo, slotLocks);
+  }
+
+  @Test
+  void testValidate_WhenStayTooLongOrCheckOutOnNonBoarding_ShouldReject() {
+    LocalDateTime checkIn = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+    assertThrows(InvalidBookingException.class, () -> reservationService.validate(
+        new ReservationRequest(1L, 2L, checkIn, null, null, checkIn.toLocalDate())));
+    assertThrows(InvalidBookingException.class, () -> reservationService.validate(
+        new ReservationRequest(1L, 2L, checkIn, null, null,
+            checkIn.toLocalDate().plusDays(ReservationService.MAX_STAY_NIGHTS + 1))));
+    assertThrows(InvalidBookingException.class, () -> reservationService.validate(
+        new ReservationRequest(1L, 1L, checkIn, null, null, checkIn.toLocalDate().plusDays(1))));
+  }
+
+  @Test
+  void testCreateBatch_WhenItemIsBoarding_ShouldRejectAsInvalid() {
+    // Given
+    var reqs = List.of(new ReservationRequest(1L, 2L,
+        LocalDateTime.of(2024, 1, 15, 10, 0), null, null, LocalDate.of(2024, 1, 16)));
+    when(petRepo.findAllById(any())).thenReturn(List.of(testPet));
+    when(serviceRepo.findAllById(any())).thenReturn(List.of(boardingService));
+
+    // When & Then
+    BatchBookingException ex = assertThrows(BatchBookingException.class,
+        () -> reservationService.createBatch(reqs));
+    assertFalse(ex.isConflict());
+    assertEquals("Boarding stays must be booked on their own", ex.getItems().get(0).message());
+    verifyNoInteractions(batchInserter, slotLocks);
+  }
+
+  @Test
+  void testOccupancy_ShouldCountEveryNightOfTheMonthInOneQuery() {
+    // Given
+    when(rules.forCode("BOARD")).thenReturn(new ServiceRules.Rule(2L, "BOARD", 0x7F, 0, 1440));
+    when(stations.capacity(2L)).thenReturn(2);
+    when(reservationRepo.countNightlyStays(2L, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1)))
+        .thenReturn(List.of(night(LocalDate.of(2024, 2, 1), 0), night(LocalDate.of(2024, 2, 2), 2)));
+
+    // When
+    var occupancy = reservationService.occupancy(null, YearMonth.of(2024, 2));
+
+    // Then
+    assertEquals(2L, occupancy.serviceId());
+    assertEquals(2, occupancy.capacity());
+    assertEquals(2, occupancy.nights().get(0).free());
+    assertEquals(0, occupancy.nights().get(1).free());
+    verify(reservationRepo, times(1)).countNightlyStays(any(), any(), any());
+  }
+
+  private static ReservationRepo.NightCount night(LocalDate date, int booked) {
+    return new ReservationRepo.NightCount() {
+      @Override
+      public LocalDate getNight() {
+        return date;
+      }
+
+      @Override
+      public int getBooked() {
+        return booked;
+      }
+    };
+  }
+
+  @Test
+  void testCreate_WhenOutsideServiceWindow_ShouldRejectBeforeAnyLookup() {
+    // Given
+    doThrow(new InvalidBookingException("outside window"))
+        .when(rules).check(1L, testRequest.reservationTime());
+
+    // When & Then
+    assertThrows(InvalidBookingException.class, () -> reservationService.create(testRequest));
+    verifyNoInteractions(petRepo, serviceRepo, reservationRepo, index, slotLocks);
   }
 
   @Test
@@ -152,7 +637,7 @@ class ReservationServiceTest {
 
     // When & Then
     assertThrows(Exception.class, () -> reservationService.create(testRequest));
-    verify(reservationRepo, never()).save(any(Reservation.class));
+    verify(reservationRepo, never()).saveAndFlush(any(Reservation.class));
   }
 
   @Test
@@ -163,7 +648,7 @@ class ReservationServiceTest {
 
     // When & Then
     assertThrows(Exception.class, () -> reservationService.create(testRequest));
-    verify(reservationRepo, never()).save(any(Reservation.class));
+    verify(reservationRepo, never()).saveAndFlush(any(Reservation.class));
   }
 
   @Test
@@ -190,6 +675,140 @@ class ReservationServiceTest {
     verify(reservationRepo, times(1)).findAll();
   }
 
+  @Test
+  void testSearch_WhenMoreRowsThanLimit_ShouldReturnPageWithCursor() {
+    // Given
+    Reservation second = Reservation.builder().id(2L)
+        .reservationTime(LocalDateTime.of(2024, 1, 15, 11, 0)).build();
+    Reservation third = Reservation.builder().id(3L)
+        .reservationTime(LocalDateTime.of(2024, 1, 15, 12, 0)).build();
+    when(reservationRepo.findBy(any(Specification.class), any()))
+        .thenReturn(List.of(testReservation, second, third));
+
+    // When
+    ReservationPage<Reservation> page = reservationService.search(
+        new ReservationFilter(null, null, null, null, null), null, 2);
+
+    // Then
+    assertEquals(List.of(testReservation, second), page.items());
+    assertEquals(new ReservationCursor(second.getReservationTime(), 2L),
+        ReservationCursor.decode(page.nextCursor()));
+  }
+
+  @Test
+  void testSearch_WhenLastPage_ShouldReturnNoCursor() {
+    // Given
+    when(reservationRepo.findBy(any(Specification.class), any()))
+        .thenReturn(List.of(testReservation));
+
+    // When
+    ReservationPage<Reservation> page = reservationService.search(
+        new ReservationFilter(null, null, "123", ReservationStatus.BOOKED, 1L),
+        new ReservationCursor(LocalDateTime.of(2024, 1, 1, 0, 0), 0L).encode(), 50);
+
+    // Then
+    assertEquals(1, page.items().size());
+    assertNull(page.nextCursor());
+  }
+
+  @Test
+  void testSearch_WhenCursorMalformed_ShouldRejectRequest() {
+    assertThrows(ResponseStatusException.class, () -> reservationService.search(
+        new ReservationFilter(null, null, null, null, null), "not a cursor!", 50));
+  }
+
+  @Test
+  void testChangesSince_ShouldReadBelowFenceAndAdvanceWatermarkToIt() {
+    // Given
+    testReservation.setChangeXid(140L);
+    Reservation changed = Reservation.builder().id(2L).changeXid(205L).build();
+    when(reservationRepo.changeFence()).thenReturn(230L);
+    when(reservationRepo.findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(
+        eq(120L), eq(230L), any(Limit.class)))
+        .thenReturn(List.of(testReservation, changed));
+
+    // When
+    ReservationChanges<Reservation> changes = reservationService.changesSince(120L, 100);
+
+    // Then
+    assertEquals(2, changes.items().size());
+    assertEquals(230L, changes.watermark());
+    assertFalse(changes.hasMore());
+  }
+
+  @Test
+  void testChangesFromNow_ShouldReturnFenceWithoutReadingRows() {
+    // Given
+    when(reservationRepo.changeFence()).thenReturn(230L);
+
+    // When
+    ReservationChanges<Reservation> changes = reservationService.changesFromNow();
+
+    // Then
+    assertTrue(changes.items().isEmpty());
+    assertEquals(230L, changes.watermark());
+    verify(reservationRepo, never())
+        .findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(anyLong(), anyLong(), any());
+  }
+
+  @Test
+  void testChangesSince_WhenPageFull_ShouldStopAtTransactionBoundary() {
+    // Given
+    when(reservationRepo.changeFence()).thenReturn(300L);
+    when(reservationRepo.findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(
+        eq(100L), eq(300L), any(Limit.class)))
+        .thenReturn(List.of(
+            Reservation.builder().id(1L).changeXid(150L).build(),
+            Reservation.builder().id(2L).changeXid(160L).build(),
+            Reservation.builder().id(3L).changeXid(160L).build()));
+
+    // When
+    ReservationChanges<Reservation> changes = reservationService.changesSince(100L, 2);
+
+    // Then: transaction 160 is left whole for the next page
+    assertEquals(1, changes.items().size());
+    assertEquals(160L, changes.watermark());
+    assertTrue(changes.hasMore());
+  }
+
+  @Test
+  void testChangesSince_WhenOneTransactionExceedsAPage_ShouldSendItWhole() {
+    // Given
+    var rows = List.of(
+        Reservation.builder().id(1L).changeXid(160L).build(),
+        Reservation.builder().id(2L).changeXid(160L).build(),
+        Reservation.builder().id(3L).changeXid(160L).build());
+    when(reservationRepo.changeFence()).thenReturn(300L);
+    when(reservationRepo.findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(
+        eq(100L), eq(300L), any(Limit.class)))
+        .thenReturn(rows.subList(0, 2 + 1));
+    when(reservationRepo.findByChangeXidOrderById(160L)).thenReturn(rows);
+
+    // When
+    ReservationChanges<Reservation> changes = reservationService.changesSince(100L, 2);
+
+    // Then
+    assertEquals(3, changes.items().size());
+    assertEquals(161L, changes.watermark());
+    assertTrue(changes.hasMore());
+  }
+
+  @Test
+  void testChangesSince_WhenNothingFinished_ShouldKeepWatermark() {
+    // Given
+    when(reservationRepo.changeFence()).thenReturn(0L);
+    when(reservationRepo.findByChangeXidGreaterThanEqualAndChangeXidLessThanOrderByChangeXidAscIdAsc(
+        eq(0L), eq(0L), any(Limit.class)))
+        .thenReturn(List.of());
+
+    // When
+    ReservationChanges<Reservation> changes = reservationService.changesSince(0L, 100);
+
+    // Then
+    assertTrue(changes.items().isEmpty());
+    assertEquals(0L, changes.watermark());
+  }
+
   @Test
   void testFindByPetId_ShouldReturnReservationsForPet() {
     // Given
@@ -217,6 +836,72 @@ class ReservationServiceTest {
     // Then
     assertEquals(ReservationStatus.CANCELED, testReservation.getStatus());
     verify(reservationRepo, times(1)).findByIdWithLock(1L);
+    verify(index, times(1)).release(7L, testReservation.getReservationTime());
+    verify(schedule, times(1)).release(eq(7L), eq(testReservation.getReservationTime()), anyInt());
+    verify(events, times(1)).publishEvent(
+        argThat((Object e) -> e instanceof ReservationEvent re && re.type() == ReservationEvent.Type.CANCELED));
+  }
+
+  @Test
+  void testCancel_WhenPhoneFormattedDifferently_ShouldCancelReservation() {
+    // Given
+    when(reservationRepo.findByIdWithLock(1L)).thenReturn(Optional.of(testReservation));
+
+    // When
+    reservationService.cancel(1L, "(123) 456 7890");
+
+    // Then
+    assertEquals(ReservationStatus.CANCELED, testReservation.getStatus());
+  }
+
+  @Test
+  void testCancel_WhenWaiterMatches_ShouldPromoteIntoSameStationAndKeepSlotTaken() {
+    // Given
+    LocalDateTime future = LocalDateTime.now().plusDays(3).withHour(11).withMinute(0).withSecond(0).withNano(0);
+    testReservation.setReservationTime(future);
+    var entry = WaitlistEntry.builder().id(5L).petId(2L).serviceId(1L).ownerPhone("555-0002")
+        .preferredDay(future.toLocalDate()).windowStart(LocalTime.of(10, 0)).windowEnd(LocalTime.of(12, 0))
+        .build();
+    var waitingPet = Pet.builder().id(2L).name("Biscuit").ownerPhone("555-0002").build();
+    when(reservationRepo.findByIdWithLock(1L)).thenReturn(Optional.of(testReservation));
+    when(waitlistRepo.claimBestMatch(1L, future.toLocalDate(), LocalTime.of(11, 0))).thenReturn(Optional.of(entry));
+    when(petRepo.getReferenceById(2L)).thenReturn(waitingPet);
+    when(reservationRepo.saveAndFlush(any(Reservation.class))).thenAnswer(inv -> {
+      Reservation r = inv.getArgument(0);
+      r.setId(2L);
+      return r;
+    });
+
+    // When
+    reservationService.cancel(1L, "123-456-7890");
+
+    // Then
+    assertEquals(ReservationStatus.CANCELED, testReservation.getStatus());
+    InOrder order = inOrder(reservationRepo);
+    order.verify(reservationRepo).flush();
+    order.verify(reservationRepo).saveAndFlush(argThat(r -> r.getStationId() == 7L
+        && future.equals(r.getReservationTime()) && "555-0002".equals(r.getOwnerPhone())));
+    assertEquals(WaitlistStatus.PROMOTED, entry.getStatus());
+    assertEquals(2L, entry.getReservationId());
+    verify(index, never()).release(anyLong(), any());
+    verify(schedule, never()).release(anyLong(), any(), anyInt());
+    verify(events).publishEvent(argThat((Object e) -> e instanceof WaitlistPromoted p && p.entryId() == 5L));
+  }
+
+  @Test
+  void testCancel_WhenNobodyWaits_ShouldReleaseSlot() {
+    // Given
+    LocalDateTime future = LocalDateTime.now().plusDays(3).withHour(11).withMinute(0).withSecond(0).withNano(0);
+    testReservation.setReservationTime(future);
+    when(reservationRepo.findByIdWithLock(1L)).thenReturn(Optional.of(testReservation));
+    when(waitlistRepo.claimBestMatch(any(), any(), any())).thenReturn(Optional.empty());
+
+    // When
+    reservationService.cancel(1L, "123-456-7890");
+
+    // Then
+    verify(reservationRepo, never()).saveAndFlush(any(Reservation.class));
+    verify(index).release(7L, future);
   }
 
   @Test
@@ -261,6 +946,8 @@ class ReservationServiceTest {
     // Then
     assertEquals(ReservationStatus.COMPLETED, testReservation.getStatus());
     verify(reservationRepo, times(1)).findByIdWithLock(1L);
+    verify(events, times(1)).publishEvent(
+        argThat((Object e) -> e instanceof ReservationEvent re && re.type() == ReservationEvent.Type.COMPLETED));
   }
 
   @Test
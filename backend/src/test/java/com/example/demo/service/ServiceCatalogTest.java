@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ServiceOfferingDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceCatalogTest {
+
+  @Mock
+  private ServiceOfferingService offerings;
+
+  @Mock
+  private ApplicationEventPublisher events;
+
+  private SimpleMeterRegistry meters;
+  private ServiceCatalog catalog;
+
+  private final ServiceOfferingDTO wash = new ServiceOfferingDTO(
+      3L, "WASH", "Pet Washing", "Wash", "MONDAY", "10:00", "18:00");
+
+  @BeforeEach
+  void setUp() {
+    meters = new SimpleMeterRegistry();
+    catalog = new ServiceCatalog(offerings, new ObjectMapper(), events, meters);
+  }
+
+  @Test
+  void testSnapshot_ShouldLoadOnceAndServeFromMemory() {
+    // Given
+    when(offerings.findAll()).thenReturn(List.of(wash));
+
+    // When
+    var first = catalog.snapshot();
+    var second = catalog.snapshot();
+
+    // Then
+    assertSame(first, second);
+    assertEquals(wash, first.byId().get(3L));
+    assertTrue(new String(first.json()).contains("\"code\":\"WASH\""));
+    verify(offerings, times(1)).findAll();
+    assertEquals(1.0, meters.counter("service.catalog.misses").count());
+    assertEquals(1.0, meters.counter("service.catalog.hits").count());
+  }
+
+  @Test
+  void testInvalidate_ShouldReloadOnNextRead() {
+    // Given
+    when(offerings.findAll()).thenReturn(List.of(wash));
+    catalog.snapshot();
+
+    // When
+    catalog.invalidate();
+    catalog.snapshot();
+
+    // Then
+    verify(offerings, times(2)).findAll();
+    verify(offerings, times(1)).bumpCatalogVersion();
+  }
+
+  @Test
+  void testCheckVersion_WhenPeerBumped_ShouldReload() {
+    // Given
+    when(offerings.findAll()).thenReturn(List.of(wash));
+    when(offerings.catalogVersion()).thenReturn(4L);
+    catalog.snapshot();
+
+    // When
+    catalog.checkVersion();
+    when(offerings.catalogVersion()).thenReturn(5L);
+    catalog.checkVersion();
+
+    // Then
+    verify(offerings, times(2)).findAll();
+  }
+
+  @Test
+  void testRefresh_WhenUnchanged_ShouldKeepSnapshotAndNotPublish() {
+    // Given
+    when(offerings.findAll()).thenReturn(List.of(wash));
+    var first = catalog.snapshot();
+
+    // When
+    catalog.refresh();
+
+    // Then
+    assertSame(first, catalog.snapshot());
+    verify(events, times(1)).publishEvent(any(ServiceCatalog.Refreshed.class));
+  }
+
+  @Test
+  void testSnapshot_SameContentShouldGiveSameETag() {
+    var mapper = new ObjectMapper();
+    assertEquals(
+        ServiceCatalog.Snapshot.build(List.of(wash), mapper).etag(),
+        ServiceCatalog.Snapshot.build(List.of(wash), mapper).etag());
+  }
+}
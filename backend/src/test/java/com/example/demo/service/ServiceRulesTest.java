@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import com.example.demo.config.BookingConfig;
+import com.example.demo.dto.ServiceOfferingDTO;
+import com.example.demo.exception.InvalidBookingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ServiceRulesTest {
+
+  @Mock
+  private ServiceCatalog catalog;
+
+  private BookingConfig config;
+  private ServiceRules rules;
+
+  // 2024-01-18 is a Thursday, 2024-01-15 a Monday
+  private final LocalDateTime thursday = LocalDateTime.of(2024, 1, 18, 10, 0);
+  private final LocalDateTime monday = LocalDateTime.of(2024, 1, 15, 10, 0);
+
+  @BeforeEach
+  void setUp() {
+    config = new BookingConfig();
+    rules = new ServiceRules(catalog, config);
+    publish(List.of(
+        new ServiceOfferingDTO(2L, "GROOM", "Pet Grooming", "Groom", "THURSDAY,SUNDAY", "10:00", "18:00"),
+        new ServiceOfferingDTO(3L, "WASH", "Pet Washing", "Wash",
+            "MONDAY,TUESDAY,WEDNESDAY,THURSDAY,FRIDAY,SATURDAY,SUNDAY", "10:00", "18:00")));
+  }
+
+  private void publish(List<ServiceOfferingDTO> offerings) {
+    rules.onCatalogRefreshed(new ServiceCatalog.Refreshed(
+        ServiceCatalog.Snapshot.build(offerings, new ObjectMapper())));
+  }
+
+  @Test
+  void testCheck_WhenInsideWindow_ShouldPass() {
+    assertDoesNotThrow(() -> rules.check(2L, thursday));
+    assertDoesNotThrow(() -> rules.check(2L, thursday.withHour(18)));
+  }
+
+  @Test
+  void testCheck_WhenWrongDay_ShouldReject() {
+    assertThrows(InvalidBookingException.class, () -> rules.check(2L, monday));
+  }
+
+  @Test
+  void testCheck_WhenOutsideHours_ShouldReject() {
+    assertThrows(InvalidBookingException.class, () -> rules.check(3L, monday.withHour(9).withMinute(59)));
+    assertThrows(InvalidBookingException.class, () -> rules.check(3L, monday.withHour(18).withMinute(1)));
+  }
+
+  @Test
+  void testCheck_WhenSecondsPastClosing_ShouldReject() {
+    assertThrows(InvalidBookingException.class, () -> rules.check(3L, monday.withHour(18).withSecond(30)));
+  }
+
+  @Test
+  void testCheck_WhenServiceMissing_ShouldRejectAsInvalidBooking() {
+    assertThrows(InvalidBookingException.class, () -> rules.check(null, monday));
+    assertNull(rules.forCode(null));
+  }
+
+  @Test
+  void testCheck_WhenUnknownService_ShouldReject() {
+    assertThrows(InvalidBookingException.class, () -> rules.check(99L, monday));
+  }
+
+  @Test
+  void testCompile_ConfigOverrideShouldWinByCode() {
+    var override = new BookingConfig.ServiceRule();
+    override.setCode("groom");
+    override.setAllowedDays(List.of(DayOfWeek.MONDAY));
+    override.setStartTime(LocalTime.of(9, 0));
+    override.setEndTime(LocalTime.of(12, 0));
+    config.setServices(List.of(override));
+
+    publish(List.of(new ServiceOfferingDTO(2L, "GROOM", "Pet Grooming", "Groom", "THURSDAY", "10:00", "18:00")));
+
+    assertDoesNotThrow(() -> rules.check(2L, monday.withHour(9)));
+    assertThrows(InvalidBookingException.class, () -> rules.check(2L, thursday));
+    assertTrue(rules.forCode("GROOM").allowsDay(DayOfWeek.MONDAY));
+  }
+
+  @Test
+  void testTable_WhenNotYetCompiled_ShouldBuildFromCatalog() {
+    var fresh = new ServiceRules(catalog, config);
+    when(catalog.snapshot()).thenReturn(ServiceCatalog.Snapshot.build(
+        List.of(new ServiceOfferingDTO(3L, "WASH", "Pet Washing", "Wash", "MONDAY", "10:00", "18:00")),
+        new ObjectMapper()));
+
+    assertDoesNotThrow(() -> fresh.check(3L, monday));
+    verify(catalog, times(1)).snapshot();
+  }
+}
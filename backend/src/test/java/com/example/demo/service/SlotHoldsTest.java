@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import com.example.demo.config.ReservationProps;
+import com.example.demo.exception.BookingConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotHoldsTest {
+
+  @Mock
+  private ServiceRules rules;
+
+  @Mock
+  private SlotSchedule schedule;
+
+  @Mock
+  private Stations stations;
+
+  private SlotHolds holds;
+
+  private static final String CLIENT = "203.0.113.7";
+
+  private final LocalDateTime time = LocalDateTime.of(2030, 1, 7, 11, 0);
+
+  @BeforeEach
+  void setUp() {
+    // long tick so the background ticker never interferes; tests drive the wheel directly
+    holds = new SlotHolds(rules, schedule, stations, new ReservationProps(30), 300, 60_000, 3, 4);
+    lenient().when(rules.forService(2L)).thenReturn(new ServiceRules.Rule(2L, "GROOM", 0b1111111, 0, 24 * 60 - 1));
+    lenient().when(stations.of(2L)).thenReturn(List.of(1L));
+    lenient().when(schedule.isFree(anyLong(), any(), anyInt())).thenReturn(true);
+  }
+
+  @AfterEach
+  void tearDown() {
+    holds.shutdown();
+  }
+
+  @Test
+  void testPlace_ShouldBlockNearbyTimesUntilReleased() {
+    var hold = holds.place(2L, time, CLIENT);
+
+    assertTrue(holds.isHeld(hold.token(), 2L, time));
+    assertTrue(holds.clashes(1L, time.plusMinutes(20), 30));
+    assertEquals(1L, holds.stationOf(hold.token()));
+    assertThrows(BookingConflictException.class, () -> holds.place(2L, time.plusMinutes(15), CLIENT));
+
+    holds.release(hold.token());
+    assertFalse(holds.clashes(1L, time.plusMinutes(20), 30));
+    assertFalse(holds.isHeld(hold.token(), 2L, time));
+  }
+
+  @Test
+  void testPlace_WhenAlreadyBooked_ShouldThrowConflict() {
+    when(schedule.isFree(1L, time, 30)).thenReturn(false);
+
+    assertThrows(BookingConflictException.class, () -> holds.place(2L, time, CLIENT));
+    assertEquals(0, holds.size());
+  }
+
+  @Test
+  void testPlace_WhileScheduleLoads_ShouldNotBlockOtherCallers() throws Exception {
+    var loading = new CountDownLatch(1);
+    var finish = new CountDownLatch(1);
+    when(schedule.isFree(1L, time, 30)).thenAnswer(inv -> {
+      loading.countDown();
+      finish.await();
+      return true;
+    });
+    var placing = new Thread(() -> holds.place(2L, time, CLIENT));
+    placing.start();
+    assertTrue(loading.await(2, TimeUnit.SECONDS));
+
+    assertTimeoutPreemptively(Duration.ofSeconds(1), () -> assertFalse(holds.clashes(1L, time, 30)));
+
+    finish.countDown();
+    placing.join(2000);
+    assertEquals(1, holds.size());
+  }
+
+  @Test
+  void testPlace_WithTwoStations_ShouldHoldEachOnce() {
+    when(stations.of(2L)).thenReturn(List.of(1L, 2L));
+
+    var first = holds.place(2L, time, CLIENT);
+    var second = holds.place(2L, time, CLIENT);
+
+    assertEquals(1L, holds.stationOf(first.token()));
+    assertEquals(2L, holds.stationOf(second.token()));
+    assertThrows(BookingConflictException.class, () -> holds.place(2L, time, CLIENT));
+  }
+
+  @Test
+  void testPlace_WhenClientHoldsItsShare_ShouldRefuseUntilOneIsReleased() {
+    when(stations.of(2L)).thenReturn(List.of(1L, 2L, 3L, 4L));
+    var first = holds.place(2L, time, CLIENT);
+    holds.place(2L, time, CLIENT);
+    holds.place(2L, time, CLIENT);
+
+    var ex = assertThrows(ResponseStatusException.class, () -> holds.place(2L, time, CLIENT));
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatusCode());
+    assertNotNull(holds.place(2L, time, "198.51.100.1"));
+
+    holds.release(first.token());
+    assertNotNull(holds.place(2L, time.plusHours(2), CLIENT));
+  }
+
+  @Test
+  void testPlace_WhenNodeHoldsMaxLive_ShouldRefuseEveryone() {
+    when(stations.of(2L)).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+    for (int i = 0; i < 4; i++) {
+      holds.place(2L, time, "198.51.100." + i);
+    }
+
+    var ex = assertThrows(ResponseStatusException.class, () -> holds.place(2L, time, CLIENT));
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, ex.getStatusCode());
+  }
+
+  @Test
+  void testIsHeld_ShouldMatchServiceAndTime() {
+    var hold = holds.place(2L, time, CLIENT);
+
+    assertFalse(holds.isHeld(hold.token(), 3L, time));
+    assertFalse(holds.isHeld(hold.token(), 2L, time.plusMinutes(30)));
+    assertFalse(holds.isHeld(null, 2L, time));
+  }
+
+  @Test
+  void testExpiry_ShouldDropHoldWhenWheelPassesDeadline() {
+    var hold = holds.place(2L, time, CLIENT);
+    long expires = hold.expiresAt().toEpochMilli();
+
+    holds.advanceTo(expires - 120_000);
+    assertEquals(1, holds.size());
+
+    holds.advanceTo(expires + 60_000);
+    assertEquals(0, holds.size());
+    assertFalse(holds.clashes(1L, time, 30));
+  }
+
+  @Test
+  void testTimerWheel_ShouldFireAcrossLevelsInDeadlineOrder() {
+    var wheel = new TimerWheel(1, 0);
+    var fired = new ArrayList<Long>();
+    for (long d : List.of(5L, 64L, 65L, 4095L, 4096L, 300_000L)) {
+      wheel.schedule(d, () -> fired.add(d));
+    }
+    var cancelled = wheel.schedule(70, () -> fired.add(-1L));
+    cancelled.cancel();
+
+    wheel.advance(64);
+    assertEquals(List.of(5L, 64L), fired);
+    wheel.advance(4096);
+    assertEquals(List.of(5L, 64L, 65L, 4095L, 4096L), fired);
+    wheel.advance(299_999);
+    assertEquals(5, fired.size());
+    wheel.advance(300_000);
+    assertEquals(300_000L, fired.get(fired.size() - 1));
+  }
+}
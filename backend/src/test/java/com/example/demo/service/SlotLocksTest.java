@@ -0,0 +1,82 @@
+package com.example.demo.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotLocksTest {
+
+  @Mock
+  private JdbcTemplate jdbc;
+
+  private SimpleMeterRegistry meters;
+  private SlotLocks locks;
+
+  @BeforeEach
+  void setUp() {
+    meters = new SimpleMeterRegistry();
+    locks = new SlotLocks(jdbc, 60, meters);
+  }
+
+  @Test
+  void testLock_WhenWindowSpansTwoBuckets_ShouldLockBothInAscendingOrder() {
+    LocalDateTime time = LocalDateTime.of(2024, 1, 15, 10, 50);
+    int first = (int) locks.bucketOf(LocalDateTime.of(2024, 1, 15, 10, 0));
+
+    locks.lock(2L, time, 29);
+
+    InOrder order = inOrder(jdbc);
+    order.verify(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(SlotLocks.keyOf(2L)), eq(first));
+    order.verify(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(SlotLocks.keyOf(2L)), eq(first + 1));
+    verifyNoMoreInteractions(jdbc);
+    assertEquals(1, meters.timer("reservation.lock.wait").count());
+  }
+
+  @Test
+  void testLock_WhenWindowInsideOneBucket_ShouldLockOnce() {
+    locks.lock(2L, LocalDateTime.of(2024, 1, 15, 10, 30), 29);
+
+    verify(jdbc, times(1)).query(anyString(), any(RowCallbackHandler.class), any(), any());
+  }
+
+  @Test
+  void testLockAll_ShouldKeepServicesApartAndLockInServiceOrder() {
+    LocalDateTime time = LocalDateTime.of(2024, 1, 15, 10, 30);
+    int bucket = (int) locks.bucketOf(time);
+
+    locks.lockAll(Map.of(3L, List.of(time), 2L, List.of(time)), 29);
+
+    assertNotEquals(SlotLocks.keyOf(2L), SlotLocks.keyOf(3L));
+    InOrder order = inOrder(jdbc);
+    order.verify(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(SlotLocks.keyOf(2L)), eq(bucket));
+    order.verify(jdbc).query(anyString(), any(RowCallbackHandler.class), eq(SlotLocks.keyOf(3L)), eq(bucket));
+  }
+
+  @Test
+  void testLockNights_ShouldLockEachNightOfTheStayInDateOrder() {
+    LocalDate checkIn = LocalDate.of(2024, 1, 15);
+
+    locks.lockNights(2L, checkIn, checkIn.plusDays(2));
+
+    InOrder order = inOrder(jdbc);
+    order.verify(jdbc).query(anyString(), any(RowCallbackHandler.class), anyInt(), eq((int) checkIn.toEpochDay()));
+    order.verify(jdbc).query(anyString(), any(RowCallbackHandler.class), anyInt(), eq((int) checkIn.toEpochDay() + 1));
+    verifyNoMoreInteractions(jdbc);
+  }
+}
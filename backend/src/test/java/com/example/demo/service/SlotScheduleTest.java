@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.StationBooking;
+import com.example.demo.repo.ReservationRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SlotScheduleTest {
+
+  @Mock
+  private ReservationRepo reservationRepo;
+
+  private SlotSchedule schedule;
+
+  private final LocalDate day = LocalDate.of(2030, 1, 7);
+
+  @BeforeEach
+  void setUp() {
+    schedule = new SlotSchedule(reservationRepo, 60_000);
+  }
+
+  @Test
+  void testDaySchedule_ShouldFitInTwentyThreeWords() {
+    assertEquals(184, new DaySchedule().bytes());
+  }
+
+  @Test
+  void testDaySchedule_AnyBetween_ShouldScanAcrossWordBoundaries() {
+    var d = new DaySchedule();
+    d.set(64);                       // first bit of the second word
+    assertTrue(d.anyBetween(0, 64));
+    assertFalse(d.anyBetween(0, 63));
+    assertFalse(d.anyBetween(65, DaySchedule.MINUTES_PER_DAY - 1));
+    d.set(DaySchedule.MINUTES_PER_DAY - 1);
+    assertTrue(d.anyBetween(65, DaySchedule.MINUTES_PER_DAY + 100));
+    d.clear(64);
+    assertFalse(d.anyBetween(0, 64));
+  }
+
+  @Test
+  void testIsFree_WithShippedBuffer_ShouldAllowBackToBackStarts() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(1L, day.atTime(10, 0))));
+    schedule.ensureLoaded(day, day);
+
+    // the overlap constraint allows |t - b| = 30 > 29
+    assertTrue(schedule.isFree(1L, day.atTime(10, 30), 29));
+    assertTrue(schedule.isFree(1L, day.atTime(9, 30), 29));
+    assertFalse(schedule.isFree(1L, day.atTime(10, 29), 29));
+    assertFalse(schedule.isFree(1L, day.atTime(9, 31), 29));
+  }
+
+  @Test
+  void testIsFree_WhenDayNotLoaded_ShouldLoadItInsteadOfReportingFree() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(1L, day.atTime(10, 0))));
+
+    assertFalse(schedule.isFree(1L, day.atTime(10, 15), 29));
+    verify(reservationRepo, times(1)).findStationBookingsBetween(any(), any(), any());
+  }
+
+  @Test
+  void testEnsureLoaded_WhenDayStale_ShouldReplaceItWithoutAGap() {
+    schedule = new SlotSchedule(reservationRepo, -1);
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(1L, day.atTime(10, 0))));
+    schedule.ensureLoaded(day, day);
+
+    // every entry is stale at once; it is replaced, never removed, so the booking stays visible
+    assertFalse(schedule.isFree(1L, day.atTime(10, 15), 29));
+    schedule.ensureLoaded(day, day);
+    assertFalse(schedule.isFree(1L, day.atTime(10, 15), 29));
+  }
+
+  @Test
+  void testEnsureLoaded_WhenBookedDuringReload_ShouldKeepTheBooking() {
+    schedule = new SlotSchedule(reservationRepo, -1);
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+    schedule.ensureLoaded(day, day);
+
+    // the reload reads its snapshot, then a booking commits and lands in the old bitmap
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenAnswer(inv -> {
+      schedule.book(1L, day.atTime(14, 0));
+      return List.of();
+    });
+    schedule.ensureLoaded(day, day);
+
+    assertFalse(schedule.isFree(1L, day.atTime(14, 0), 29));
+  }
+
+  @Test
+  void testIsFree_ShouldSeeBookingsAcrossMidnight() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any()))
+        .thenReturn(List.of(new StationBooking(1L, day.plusDays(1).atTime(0, 15))));
+    schedule.ensureLoaded(day, day.plusDays(1));
+
+    assertFalse(schedule.isFree(1L, day.atTime(23, 50), 30));
+    assertTrue(schedule.isFree(1L, day.atTime(23, 30), 30));
+    assertTrue(schedule.isFree(2L, day.atTime(23, 50), 30));
+  }
+
+  @Test
+  void testBookAndRelease_ShouldFlipBitsInPlace() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+    schedule.ensureLoaded(day, day);
+
+    schedule.book(1L, day.atTime(14, 0));
+    assertFalse(schedule.isFree(1L, day.atTime(14, 20), 30));
+    assertTrue(schedule.isFree(2L, day.atTime(14, 20), 30));
+
+    schedule.release(1L, day.atTime(14, 0), 30);
+    assertTrue(schedule.isFree(1L, day.atTime(14, 20), 30));
+    verify(reservationRepo, times(1)).findStationBookingsBetween(any(), any(), any());
+  }
+
+  @Test
+  void testRelease_WhenBufferNarrowerThanSlot_ShouldDropDay() {
+    when(reservationRepo.findStationBookingsBetween(any(), any(), any())).thenReturn(List.of());
+    schedule.ensureLoaded(day, day);
+
+    schedule.release(1L, day.atTime(14, 0), 0);
+    schedule.ensureLoaded(day, day);
+
+    verify(reservationRepo, times(2)).findStationBookingsBetween(any(), any(), any());
+  }
+}
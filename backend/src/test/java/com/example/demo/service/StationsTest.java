@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Station;
+import com.example.demo.repo.StationRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StationsTest {
+
+  @Mock
+  private StationRepo stationRepo;
+
+  @InjectMocks
+  private Stations stations;
+
+  @Test
+  void testOf_ShouldGroupByServiceAndLoadOnce() {
+    when(stationRepo.findByActiveTrueOrderByServiceIdAscIdAsc()).thenReturn(List.of(
+        Station.builder().id(1L).serviceId(2L).name("Table 1").build(),
+        Station.builder().id(2L).serviceId(2L).name("Table 2").build(),
+        Station.builder().id(3L).serviceId(3L).name("Tub 1").build()));
+
+    assertEquals(List.of(1L, 2L), stations.of(2L));
+    assertEquals(1, stations.capacity(3L));
+    assertTrue(stations.of(1L).isEmpty());
+    verify(stationRepo, times(1)).findByActiveTrueOrderByServiceIdAscIdAsc();
+  }
+
+  @Test
+  void testRefresh_ShouldPickUpNewStations() {
+    when(stationRepo.findByActiveTrueOrderByServiceIdAscIdAsc())
+        .thenReturn(List.of(Station.builder().id(3L).serviceId(3L).name("Tub 1").build()))
+        .thenReturn(List.of(Station.builder().id(3L).serviceId(3L).name("Tub 1").build(),
+            Station.builder().id(4L).serviceId(3L).name("Tub 2").build()));
+
+    assertEquals(1, stations.capacity(3L));
+    stations.refresh();
+    assertEquals(2, stations.capacity(3L));
+  }
+}
@@ -0,0 +1,78 @@
+package com.example.demo.service;
+
+import com.example.demo.config.RetryProps;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransactionRetryTest {
+
+  private SimpleMeterRegistry meters;
+  private TransactionRetry retry;
+
+  @BeforeEach
+  void setUp() {
+    meters = new SimpleMeterRegistry();
+    retry = new TransactionRetry(new RetryProps(3, 1, 2), meters);
+  }
+
+  private static RuntimeException serializationFailure() {
+    return new CannotAcquireLockException("tx aborted",
+        new SQLException("could not serialize access", "40001"));
+  }
+
+  @Test
+  void testRun_WhenSerializationFailureThenSuccess_ShouldRetry() {
+    AtomicInteger calls = new AtomicInteger();
+
+    String result = retry.run("create", () -> {
+      if (calls.incrementAndGet() < 3) {
+        throw serializationFailure();
+      }
+      return "ok";
+    });
+
+    assertEquals("ok", result);
+    assertEquals(3, calls.get());
+    assertEquals(2.0, meters.counter("reservation.retry.attempts", "operation", "create").count());
+  }
+
+  @Test
+  void testRun_WhenAlwaysFailing_ShouldGiveUpAfterMaxAttempts() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(CannotAcquireLockException.class, () -> retry.run("create", () -> {
+      calls.incrementAndGet();
+      throw serializationFailure();
+    }));
+
+    assertEquals(3, calls.get());
+    assertEquals(1.0, meters.counter("reservation.retry.giveups", "operation", "create").count());
+  }
+
+  @Test
+  void testRun_WhenNotRetryable_ShouldFailImmediately() {
+    AtomicInteger calls = new AtomicInteger();
+
+    assertThrows(DataIntegrityViolationException.class, () -> retry.run("create", () -> {
+      calls.incrementAndGet();
+      throw new DataIntegrityViolationException("fk",
+          new SQLException("violates foreign key constraint", "23503"));
+    }));
+
+    assertEquals(1, calls.get());
+  }
+
+  @Test
+  void testIsRetryable_ShouldRecognizeDeadlock() {
+    assertTrue(TransactionRetry.isRetryable(
+        new RuntimeException(new SQLException("deadlock detected", "40P01"))));
+  }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.WaitlistRequest;
+import com.example.demo.exception.InvalidBookingException;
+import com.example.demo.model.Pet;
+import com.example.demo.model.WaitlistEntry;
+import com.example.demo.model.WaitlistStatus;
+import com.example.demo.repo.PetRepo;
+import com.example.demo.repo.WaitlistRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WaitlistServiceTest {
+
+  @Mock
+  private WaitlistRepo waitlistRepo;
+
+  @Mock
+  private PetRepo petRepo;
+
+  @Mock
+  private ServiceRules rules;
+
+  @InjectMocks
+  private WaitlistService waitlistService;
+
+  private LocalDate day;
+
+  @BeforeEach
+  void setUp() {
+    day = LocalDate.now().plusDays(2);
+    lenient().when(rules.forService(1L)).thenReturn(new ServiceRules.Rule(1L, "GROOM", 0x7F, 600, 1080));
+    lenient().when(rules.forService(2L)).thenReturn(new ServiceRules.Rule(2L, "BOARD", 0x7F, 0, 1440));
+  }
+
+  @Test
+  void testJoin_ShouldStoreWaitingEntryWithOwnerPhoneFromPet() {
+    // Given
+    when(petRepo.findById(3L)).thenReturn(Optional.of(Pet.builder().id(3L).ownerPhone("555-0003").build()));
+    when(waitlistRepo.save(any(WaitlistEntry.class))).thenAnswer(inv -> inv.getArgument(0));
+
+    // When
+    WaitlistEntry entry = waitlistService.join(
+        new WaitlistRequest(3L, 1L, day, LocalTime.of(10, 0), LocalTime.of(13, 0), null));
+
+    // Then
+    assertEquals(WaitlistStatus.WAITING, entry.getStatus());
+    assertEquals("555-0003", entry.getOwnerPhone());
+    assertEquals(day, entry.getPreferredDay());
+  }
+
+  @Test
+  void testJoin_WhenWindowReversedOrBoarding_ShouldReject() {
+    assertThrows(InvalidBookingException.class, () -> waitlistService.join(
+        new WaitlistRequest(3L, 1L, day, LocalTime.of(13, 0), LocalTime.of(10, 0), null)));
+    assertThrows(InvalidBookingException.class, () -> waitlistService.join(
+        new WaitlistRequest(3L, 2L, day, LocalTime.of(10, 0), LocalTime.of(13, 0), null)));
+    verifyNoInteractions(waitlistRepo);
+  }
+
+  @Test
+  void testWithdraw_WhenPhoneDiffers_ShouldReject() {
+    // Given
+    var entry = WaitlistEntry.builder().id(4L).ownerPhone("555-0003").build();
+    when(waitlistRepo.findById(4L)).thenReturn(Optional.of(entry));
+
+    // When & Then
+    assertThrows(IllegalArgumentException.class, () -> waitlistService.withdraw(4L, "wrong-phone"));
+    assertEquals(WaitlistStatus.WAITING, entry.getStatus());
+  }
+}
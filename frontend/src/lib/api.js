@@ -7,4 +7,32 @@ export async function apiFetch(url, options = {}) {
   };
   const res = await fetch(url, { ...options, headers });
   return res;
-}
\ No newline at end of file
+}
+
+/**
+ * Opens a Server-Sent Events stream with the JWT attached (EventSource can't send headers).
+ * Calls onEvent(name, data) per event; resolves when the stream ends.
+ */
+export async function apiStream(url, onEvent, signal) {
+  const res = await apiFetch(url, { headers: { Accept: "text/event-stream" }, signal });
+  if (!res.ok || !res.body) throw new Error(`stream failed: ${res.status}`);
+  const reader = res.body.pipeThrough(new TextDecoderStream()).getReader();
+  let buf = "";
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) return;
+    buf += value;
+    let end;
+    while ((end = buf.indexOf("\n\n")) >= 0) {
+      const block = buf.slice(0, end);
+      buf = buf.slice(end + 2);
+      let name = "message";
+      const data = [];
+      for (const line of block.split("\n")) {
+        if (line.startsWith("event:")) name = line.slice(6).trim();
+        else if (line.startsWith("data:")) data.push(line.slice(5).trim());
+      }
+      onEvent(name, data.join("\n"));
+    }
+  }
+}
@@ -1,36 +1,122 @@
 import { useState, useMemo, useEffect, useCallback, useRef } from "react";
-import {apiFetch} from "../lib/api"
+import {apiFetch, apiStream} from "../lib/api"
 
 /**
  * OwnerDashboard  
  * @todo: Add in a user login for security
  */
 
-const AUTO_REFRESH_TIME = 10_000;
+// fallback poll; changes normally arrive over the SSE stream, other replicas' as a resync within seconds
+const AUTO_REFRESH_TIME = 60_000;
+const STREAM_RETRY_TIME = 5_000;
+const PAGE_SIZE = 100;
+// local yyyy-mm-dd, the same shape as r.date
+const today = () => new Date().toLocaleDateString("en-CA");
+
 export default function OwnerDashboard() {
   const [filters, setFilters] = useState({ phone: "", date: "" });
   const [reservations, setReservations] = useState([]);
   const [selectedNote, setSelectedNote] = useState(null);
-  const setLastUpdated = useState(null);
+  const [, setLastUpdated] = useState(null);
   const [sortKeys, setSortKeys] = useState([{ key: "date", dir: "asc" }, { key: "time", dir: "asc" }, { key: "status", dir: "asc" }]);
+  const [nextCursor, setNextCursor] = useState(null);
   const fetching = useRef(false);
+  const refetch = useRef(false);
+
+  const watermark = useRef(null);
+  // oldest day on screen; earlier rows are only loaded when the date filter asks for them
+  const windowStart = useRef(today());
+
+  const mergeRows = useCallback((rows) => {
+    const inWindow = rows.filter((r) => r.date >= windowStart.current);
+    if (inWindow.length === 0) return;
+    setReservations((prev) => {
+      const merged = new Map(prev.map((r) => [r.id, r]));
+      inWindow.forEach((r) => merged.set(r.id, r));
+      return [...merged.values()];
+    });
+  }, []);
+
+  // One page of reservations from windowStart on; the next page waits for "加载更多"
+  const loadPage = useCallback(async (cursor) => {
+    const qs = new URLSearchParams({ from: windowStart.current, limit: PAGE_SIZE });
+    if (cursor) qs.set("cursor", cursor);
+    const res = await apiFetch(`/api/reservations/dashboard?${qs}`, { cache: "no-store" });
+    mergeRows(await res.json());
+    setNextCursor(res.headers.get("X-Next-Cursor"));
+  }, [mergeRows]);
 
+  // Pulls one page of rows created/changed since the last poll and merges them by id.
+  // A call that lands while one is in flight is not dropped: it runs once that one ends
   const fetchReservations = useCallback(async() => {
-    if (fetching.current) return;
+    if (watermark.current === null) return;
+    if (fetching.current) {
+      refetch.current = true;
+      return;
+    }
     fetching.current = true;
+    refetch.current = false;
+    let more = false;
     try{
-      const res = await apiFetch(`/api/reservations/dashboard?ts=${Date.now()}`, { cache: "no-store" });
+      const qs = new URLSearchParams({ since: watermark.current, ts: Date.now() });
+      const res = await apiFetch(`/api/reservations/dashboard/changes?${qs}`, { cache: "no-store" });
       const data = await res.json();
-      setReservations(data);
+      mergeRows(data.items);
+      watermark.current = data.watermark;
+      more = data.hasMore;
       setLastUpdated(new Date());
     }catch (e) {
       console.error(e);
     }finally {
       fetching.current = false;
     }
-  }, []);
+    if (more || refetch.current) fetchReservations();
+  }, [mergeRows]);
+
+  // The watermark is read before the first page, so a change racing the load is replayed, never lost
+  const reload = useCallback(async () => {
+    try{
+      const res = await apiFetch(`/api/reservations/dashboard/changes?ts=${Date.now()}`, { cache: "no-store" });
+      watermark.current = (await res.json()).watermark;
+      setReservations([]);
+      await loadPage(null);
+      setLastUpdated(new Date());
+    }catch (e) {
+      console.error(e);
+    }
+  }, [loadPage]);
+
+  useEffect(() => { reload(); }, [reload]);
 
-  useEffect(fetchReservations, [fetchReservations]);
+  // Picking a day before the loaded window widens it back to that day
+  useEffect(() => {
+    if (filters.date && filters.date < windowStart.current) {
+      windowStart.current = filters.date;
+      reload();
+    }
+  }, [filters.date, reload]);
+
+  const loadMore = async () => {
+    try{
+      await loadPage(nextCursor);
+    }catch (e) {
+      console.error(e);
+    }
+  };
+
+  // Any pushed event (or a resync hint) just pulls the delta feed
+  useEffect(() => {
+    const ctrl = new AbortController();
+    let retry;
+    const connect = () =>
+      apiStream("/api/reservations/dashboard/stream", () => fetchReservations(), ctrl.signal)
+        .catch((e) => { if (!ctrl.signal.aborted) console.error(e); })
+        .finally(() => {
+          if (!ctrl.signal.aborted) retry = setTimeout(connect, STREAM_RETRY_TIME);
+        });
+    connect();
+    return () => { ctrl.abort(); clearTimeout(retry); };
+  }, [fetchReservations]);
 
   useEffect(() => {
     const tick = () => {
@@ -213,6 +299,16 @@ export default function OwnerDashboard() {
           </tbody>
         </table>
       </div>
+      {nextCursor && (
+        <div className="flex justify-center">
+          <button
+            onClick={loadMore}
+            className="inline-flex justify-center items-center px-4 py-2 border border-gray-300 rounded-lg text-sm font-medium text-gray-700 bg-white hover:bg-gray-50"
+          >
+            加载更多
+          </button>
+        </div>
+      )}
       {selectedNote && (
       <div className="fixed inset-0 z-50 flex items-center justify-center bg-black/40">
         <div
@@ -1,4 +1,4 @@
-import { useEffect, useState } from "react";
+import { useEffect, useRef, useState } from "react";
 import { DayPicker } from "react-day-picker";
 import "react-day-picker/dist/style.css";
 
@@ -144,8 +144,11 @@ function CancelReservationCard() {
  * ------------------------------------------------------
  * 1. Dropdown of services comes from GET /api/services
  * 2. On submit:
- *    • POST /api/pets            → returns pet.id
- *    • POST /api/reservations    (with petId, serviceId, reservationTime, notes)
+ *    • POST /api/holds while a time is picked → short lease on that slot
+ *    • POST /api/reservations/with-pet  (pet details + serviceId, reservationTime, notes, holdToken)
+ *      → pet and reservation are saved together, or not at all
+ *    • every submission carries an Idempotency-Key, kept for resubmits of the same form,
+ *      so a retry after a lost response returns the first booking instead of a second one
  */
 export default function Reservation() {
   const [formData, setFormData] = useState({
@@ -158,6 +161,7 @@ export default function Reservation() {
     breed: "",
     age: "",
     serviceId: "",
+    checkOut: "",
     notes: "",
   });
   const [services, setServices] = useState([]);
@@ -165,6 +169,9 @@ export default function Reservation() {
   const [msg, setMsg] = useState(null);
   const [rule, setRule] = useState(null);
   const [fieldErr, setFieldErr] = useState({ date: false, time: false });
+  const [hold, setHold] = useState(null);
+  // one key per submission; a new one once the form is edited or the booking went through
+  const submitKey = useRef(null);
 
   useEffect(() => {
     const norm = (s) => s.split(',').map(d => d.trim());
@@ -179,8 +186,52 @@ export default function Reservation() {
       .catch(() => setServices([]));
   }, []);
 
+  // Lease the chosen time while the form is being filled in, so it can't be taken from under us
+  useEffect(() => {
+    if (!formData.serviceId || !formData.date || !formData.time || fieldErr.date || fieldErr.time) return;
+    let cancelled = false;
+    let token = null;
+    fetch("/api/holds", {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify({
+        serviceId: Number(formData.serviceId),
+        time: `${formatLocalIsoDate(formData.date)}T${formData.time}`,
+      }),
+    })
+      .then(async (r) => {
+        if (r.ok) return r.json();
+        if (r.status === 409 && !cancelled) {
+          const body = await r.json().catch(() => null);
+          setMsg({ type: "error", text: body?.message || "That time was just taken, please pick another." });
+        }
+        // no lease, but the booking itself can still go through
+        if (r.status === 429 && !cancelled) {
+          const body = await r.json().catch(() => null);
+          setMsg({ type: "error", text: body?.message || "Too many times held right now; your booking is not reserved until submitted." });
+        }
+        return null;
+      })
+      .then((h) => {
+        if (!h) return;
+        if (cancelled) {
+          fetch(`/api/holds/${h.token}`, { method: "DELETE" }).catch(() => {});
+          return;
+        }
+        token = h.token;
+        setHold(h);
+      })
+      .catch(() => {});
+    return () => {
+      cancelled = true;
+      setHold(null);
+      if (token) fetch(`/api/holds/${token}`, { method: "DELETE" }).catch(() => {});
+    };
+  }, [formData.serviceId, formData.date, formData.time, fieldErr.date, fieldErr.time]);
+
   const handleChange = (e) => {
     setFormData({ ...formData, [e.target.name]: e.target.value });
+    submitKey.current = null;
 
     if (e.target.name === "date" && rule) {
       const bad = !rule.allowedDays.includes(dayName(e.target.value));
@@ -198,7 +249,7 @@ export default function Reservation() {
       setRule(srv ?? null);
       setFieldErr({ date: false, time: false });
       const next = srv ? nextAllowedDate(srv.allowedDays) : null;
-      setFormData((f) => ({ ...f, date: next, time: "" }));
+      setFormData((f) => ({ ...f, date: next, time: "", checkOut: "" }));
     }
   };
 
@@ -206,38 +257,36 @@ export default function Reservation() {
     e.preventDefault();
     setMsg(null);
 
+    const boarding = rule?.code === "BOARD";
     const required = ["date", "time", "serviceId", "owner", "contact", "name", "species"];
+    if (boarding) required.push("checkOut");
     if (required.some(k => !formData[k])) {
       setMsg({ type: "error", text: "Please fill in all required fields." });
       return;
     }
 
     setLoading(true);
+    // randomUUID needs a secure context; plain-http deployments fall back to a random string
+    submitKey.current ??= crypto.randomUUID?.() ?? `${Date.now()}-${Math.random().toString(36).slice(2)}`;
     try {
-      const petRes = await fetch("/api/pets", {
-        method: "POST",
-        headers: { "Content-Type": "application/json" },
-        body: JSON.stringify({
-          name: formData.name,
-          species: formData.species,
-          breed: formData.breed,
-          age: Number(formData.age || 0),
-          ownerName: formData.owner,
-          ownerPhone: formData.contact,
-        }),
-      });
-      if (!petRes.ok) throw new Error("Failed to save pet");
-      const pet = await petRes.json();
-
       const reservationTime = `${formatLocalIsoDate(formData.date)}T${formData.time}`;
-      const resRes = await fetch("/api/reservations", {
+      const resRes = await fetch("/api/reservations/with-pet", {
         method: "POST",
-        headers: { "Content-Type": "application/json" },
+        headers: { "Content-Type": "application/json", "Idempotency-Key": submitKey.current },
         body: JSON.stringify({
-          petId: pet.id,
+          pet: {
+            name: formData.name,
+            species: formData.species,
+            breed: formData.breed,
+            age: Number(formData.age || 0),
+            ownerName: formData.owner,
+            ownerPhone: formData.contact,
+          },
           serviceId: Number(formData.serviceId),
           reservationTime,
+          checkOut: boarding ? formData.checkOut : null,
           notes: formData.notes,
+          holdToken: hold?.token,
         }),
       });
 
@@ -252,6 +301,7 @@ export default function Reservation() {
       }
 
       const reservation = await resRes.json();
+      submitKey.current = null;
 
       setMsg({
                 type: "success",
@@ -426,6 +476,21 @@ export default function Reservation() {
           </div>
         </div>
 
+        {rule?.code === "BOARD" && (
+          <div>
+            <label className="block font-semibold mb-1">🏠 Check-out Date 离店日期</label>
+            <input
+              type="date"
+              name="checkOut"
+              value={formData.checkOut}
+              onChange={handleChange}
+              min={formData.date ? formatLocalIsoDate(new Date(formData.date.getTime() + 86400000)) : undefined}
+              required
+              className="w-full border rounded-md p-2"
+            />
+          </div>
+        )}
+
         <div>
           <label className="block font-semibold mb-1">📝 Special Notes 备注</label>
           <textarea
@@ -14,6 +14,8 @@ export default ({ mode }) => {
         '/api': {
           target: env.VITE_BACKEND_URL || 'http://backend:8080',
           changeOrigin: true,
+          // pass the browser's address on, so per-client limits (slot holds) see customers, not the proxy
+          xfwd: true,
         },
       },
     },